@@ -4,16 +4,22 @@ import lombok.Getter;
 import me.lyphium.pagepriceparser.command.*;
 import me.lyphium.pagepriceparser.connection.ConnectionManager;
 import me.lyphium.pagepriceparser.database.DatabaseConnection;
+import me.lyphium.pagepriceparser.database.HistoryStore;
 import me.lyphium.pagepriceparser.parser.PageParser;
+import me.lyphium.pagepriceparser.parser.ParserSettings;
 import me.lyphium.pagepriceparser.utils.Command;
 import me.lyphium.pagepriceparser.utils.PrettyPrintStream;
+import me.lyphium.pagepriceparser.utils.SimulatedClock;
 import me.lyphium.pagepriceparser.utils.Utils;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.sql.Timestamp;
 import java.util.Calendar;
+import java.util.Date;
 import java.util.Properties;
 import java.util.Scanner;
 
@@ -28,6 +34,7 @@ public class Bot {
     private PageParser parser;
     private DatabaseConnection database;
     private ConnectionManager connectionManager;
+    private HistoryStore history;
 
     public Bot() {
         instance = this;
@@ -41,6 +48,7 @@ public class Bot {
         long period = PageParser.DEFAULT_PERIOD;
         int port = ConnectionManager.DEFAULT_PORT;
         long startTime = 0;
+        final ParserSettings settings = new ParserSettings();
         for (int i = 0; i < args.length; i++) {
             final String part = args[i];
 
@@ -72,7 +80,7 @@ public class Bot {
                 cal.set(Calendar.MINUTE, Integer.parseUnsignedInt(split[1]));
                 cal.set(Calendar.SECOND, Integer.parseUnsignedInt(split[2]));
 
-                if (cal.getTimeInMillis() < System.currentTimeMillis()) {
+                if (cal.getTimeInMillis() < Utils.currentTime()) {
                     cal.add(Calendar.DATE, 1);
                 }
 
@@ -80,6 +88,211 @@ public class Bot {
 
                 i++;
             }
+            // Parsing the maximum number of parallel requests per domain
+            else if (part.equals("-domainlimit") && i < args.length - 1) {
+                if (!args[i + 1].matches("(\\d){1,4}")) {
+                    continue;
+                }
+
+                settings.setDomainLimit(Integer.parseUnsignedInt(args[i + 1]));
+                i++;
+            }
+            // Parsing the number of threads loading pages
+            else if (part.equals("-fetchthreads") && i < args.length - 1) {
+                if (!args[i + 1].matches("(\\d){1,5}")) {
+                    continue;
+                }
+
+                settings.setFetchThreads(Integer.parseUnsignedInt(args[i + 1]));
+                i++;
+            }
+            // Parsing the queue limit of the loading threads
+            else if (part.equals("-fetchqueue") && i < args.length - 1) {
+                if (!args[i + 1].matches("(\\d){1,5}")) {
+                    continue;
+                }
+
+                settings.setFetchQueueLimit(Integer.parseUnsignedInt(args[i + 1]));
+                i++;
+            }
+            // Parsing the number of threads parsing pages
+            else if (part.equals("-parsethreads") && i < args.length - 1) {
+                if (!args[i + 1].matches("(\\d){1,5}")) {
+                    continue;
+                }
+
+                settings.setParseThreads(Integer.parseUnsignedInt(args[i + 1]));
+                i++;
+            }
+            // Parsing the queue limit of the parsing threads
+            else if (part.equals("-parsequeue") && i < args.length - 1) {
+                if (!args[i + 1].matches("(\\d){1,5}")) {
+                    continue;
+                }
+
+                settings.setParseQueueLimit(Integer.parseUnsignedInt(args[i + 1]));
+                i++;
+            }
+            // Parsing the number of retries of a failed request
+            else if (part.equals("-retries") && i < args.length - 1) {
+                if (!args[i + 1].matches("(\\d){1,2}")) {
+                    continue;
+                }
+
+                settings.setRetries(Integer.parseUnsignedInt(args[i + 1]));
+                i++;
+            }
+            // Parsing the delay before the first retry
+            else if (part.equals("-retrydelay") && i < args.length - 1) {
+                settings.setRetryDelay(Math.max(0, Utils.calculatePeriod(args[i + 1])));
+                i++;
+            }
+            // Parsing the number of failures until a host is considered down
+            else if (part.equals("-breaker") && i < args.length - 1) {
+                if (!args[i + 1].matches("(\\d){1,4}")) {
+                    continue;
+                }
+
+                settings.setBreakerThreshold(Integer.parseUnsignedInt(args[i + 1]));
+                i++;
+            }
+            // Parsing the time no requests are sent to a host considered down
+            else if (part.equals("-breakertime") && i < args.length - 1) {
+                settings.setBreakerTime(Math.max(0, Utils.calculatePeriod(args[i + 1])));
+                i++;
+            }
+            // Parsing the number of slots the checks are spread over
+            else if (part.equals("-slots") && i < args.length - 1) {
+                if (!args[i + 1].matches("(\\d){1,5}")) {
+                    continue;
+                }
+
+                settings.setSlots(Math.max(1, Integer.parseUnsignedInt(args[i + 1])));
+                i++;
+            }
+            // Enable staggered checks
+            else if (part.equals("--stagger")) {
+                settings.setStaggered(true);
+            }
+            // Parsing the shortest interval of a page
+            else if (part.equals("-minperiod") && i < args.length - 1) {
+                settings.setMinInterval(Math.max(1000, Utils.calculatePeriod(args[i + 1])));
+                i++;
+            }
+            // Parsing the longest interval of a page
+            else if (part.equals("-maxperiod") && i < args.length - 1) {
+                settings.setMaxInterval(Math.max(1000, Utils.calculatePeriod(args[i + 1])));
+                i++;
+            }
+            // Parsing the time span used to measure how often prices change
+            else if (part.equals("-window") && i < args.length - 1) {
+                settings.setWindow(Math.max(1000, Utils.calculatePeriod(args[i + 1])));
+                i++;
+            }
+            // Enable adaptive intervals
+            else if (part.equals("--adaptive")) {
+                settings.setAdaptive(true);
+            }
+            // Enable streaming price extraction
+            else if (part.equals("--stream")) {
+                settings.setStreaming(true);
+            }
+            // Parsing the maximum time of one update cycle
+            else if (part.equals("-budget") && i < args.length - 1) {
+                settings.setCycleBudget(Math.max(1000, Utils.calculatePeriod(args[i + 1])));
+                i++;
+            }
+            // Parsing the maximum size of a page in KB
+            else if (part.equals("-maxbody") && i < args.length - 1) {
+                if (!args[i + 1].matches("(\\d){1,6}")) {
+                    continue;
+                }
+
+                settings.setMaxBodySize(Math.max(1, Integer.parseUnsignedInt(args[i + 1])) * 1024);
+                i++;
+            }
+            // Parsing the polling calendar, either a file or the rules themselves
+            else if (part.equals("-calendar") && i < args.length - 1) {
+                final File file = new File(args[i + 1]);
+                try {
+                    settings.setCalendar(file.isFile() ? new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8) : args[i + 1]);
+                } catch (IOException e) {
+                    System.err.println("Couldn't read calendar: " + e.getMessage());
+                }
+                i++;
+            }
+            // Parsing the directory of recorded pages to replay
+            else if (part.equals("-replay") && i < args.length - 1) {
+                settings.setReplayDirectory(new File(args[i + 1]));
+                i++;
+            }
+            // Parsing the directory pages are recorded to
+            else if (part.equals("-record") && i < args.length - 1) {
+                settings.setRecordDirectory(new File(args[i + 1]));
+                i++;
+            }
+            // Parsing the artificial latency of replayed pages
+            else if (part.equals("-latency") && i < args.length - 1) {
+                settings.setReplayLatency(Math.max(0, Utils.calculatePeriod(args[i + 1])));
+                i++;
+            }
+            // Parsing the share of replayed requests which fail
+            else if (part.equals("-errorrate") && i < args.length - 1) {
+                if (!args[i + 1].matches("[01](\\.\\d+)?|\\.\\d+")) {
+                    continue;
+                }
+
+                settings.setReplayErrorRate(Double.parseDouble(args[i + 1]));
+                i++;
+            }
+            // Parsing an url prefix read by the extractor of another domain
+            else if (part.equals("-alias") && i < args.length - 1) {
+                final String[] alias = args[i + 1].split("=", 2);
+                if (alias.length != 2) {
+                    continue;
+                }
+
+                settings.getAliases().put(alias[0], alias[1]);
+                i++;
+            }
+            // Enable loading pages from list pages
+            else if (part.equals("--lists")) {
+                settings.setLists(true);
+            }
+            // Enable the deadline ordered page queue
+            else if (part.equals("--queue")) {
+                settings.setQueued(true);
+            }
+            // Parsing the number of pages the queue checks at the same time
+            else if (part.equals("-workers") && i < args.length - 1) {
+                if (!args[i + 1].matches("(\\d){1,5}")) {
+                    continue;
+                }
+
+                settings.setWorkers(Math.max(1, Integer.parseUnsignedInt(args[i + 1])));
+                i++;
+            }
+            // Parsing the time until a failed page is checked again
+            else if (part.equals("-failperiod") && i < args.length - 1) {
+                settings.setFailureInterval(Math.max(1000, Utils.calculatePeriod(args[i + 1])));
+                i++;
+            }
+            // Parsing the start of the simulated clock, prices are only generated by the simulate command
+            else if (part.equals("-simulate") && i < args.length - 1) {
+                final String t = args[i + 1];
+                final Timestamp time = t.matches("\\d{4}-\\d{1,2}-\\d{1,2}") ? Timestamp.valueOf(t + " 00:00:00") : Utils.toTimestamp(t);
+                if (time == null) {
+                    continue;
+                }
+
+                Utils.setClock(new SimulatedClock(time.getTime()));
+                i++;
+            }
+            // Parsing the directory of the memory-mapped price history
+            else if (part.equals("-history") && i < args.length - 1) {
+                this.history = new HistoryStore(new File(args[i + 1]));
+                i++;
+            }
             // Disable log file
             else if (part.equals("--nl")) {
                 PrettyPrintStream.setLog(false);
@@ -87,7 +300,7 @@ public class Bot {
         }
 
         // Creating Parse Thread
-        this.parser = new PageParser(period, startTime);
+        this.parser = new PageParser(period, startTime, settings);
 
         // Creating Client Managager
         this.connectionManager = new ConnectionManager(port);
@@ -107,10 +320,22 @@ public class Bot {
         // Test for valid database connection
         if (!database.isConnected()) {
             System.err.println("No database connection currently available. Please check");
+        } else if (history != null) {
+            // Loading prices saved since the last start into the local history
+            final long time = System.currentTimeMillis();
+            database.setHistory(history);
+            final int count = history.sync(database);
+            System.out.println("Synchronized price history: " + count + " prices in "
+                    + (System.currentTimeMillis() - time) + "ms");
         }
 
-        // Starting Parse Thread
-        parser.start();
+        // Starting Parse Thread, simulated time only moves by the simulate command
+        if (Utils.getClock() instanceof SimulatedClock) {
+            System.out.println("Simulation mode: Automatic Page Parser disabled, clock set to "
+                    + Utils.toString(new Date(Utils.currentTime())));
+        } else {
+            parser.start();
+        }
 
         // Starting Client Managager
         connectionManager.start();
@@ -123,11 +348,16 @@ public class Bot {
         this.running = false;
         System.out.println("Stopping Bot...");
 
+        // Shutting down Parse Thread first, its last prices are still saved
+        parser.cancel();
+
         // Shutting down databaseconnection
         database.stop();
 
-        // Shutting down Parse Thread
-        parser.cancel();
+        // Writing the price history to disk
+        if (history != null) {
+            history.close();
+        }
 
         // Shutting down Client Manager
         connectionManager.cancel();
@@ -162,12 +392,16 @@ public class Bot {
     private void registerCommands() {
         // Register all commands
         Command.registerCommand(new AddPageCommand());
+        Command.registerCommand(new BenchmarkCommand());
         Command.registerCommand(new DataCommand());
         Command.registerCommand(new GraphCommand());
         Command.registerCommand(new HelpCommand());
         Command.registerCommand(new InfoCommand());
         Command.registerCommand(new PeriodCommand());
         Command.registerCommand(new RemovePageCommand());
+        Command.registerCommand(new SimulateCommand());
+        Command.registerCommand(new StatusCommand());
+        Command.registerCommand(new StubCommand());
         Command.registerCommand(new UpdateCommand());
     }
 
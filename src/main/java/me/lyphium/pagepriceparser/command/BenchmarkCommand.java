@@ -0,0 +1,73 @@
+package me.lyphium.pagepriceparser.command;
+
+import me.lyphium.pagepriceparser.Bot;
+import me.lyphium.pagepriceparser.parser.ExtractionBenchmark;
+import me.lyphium.pagepriceparser.utils.Command;
+import me.lyphium.pagepriceparser.utils.CommandInfo;
+import me.lyphium.pagepriceparser.utils.PriceMapBenchmark;
+
+import java.io.File;
+import java.io.IOException;
+
+@CommandInfo(
+        description = "Measures the performance of the parser on recorded data",
+        shortUsage = "benchmark <type> <value>",
+        usage = "benchmark extract <directory> [rounds] | benchmark pricemap <points> [rounds]",
+        aliases = "bench"
+)
+public class BenchmarkCommand extends Command {
+
+    public BenchmarkCommand() {
+        super("benchmark");
+    }
+
+    @Override
+    public boolean onCommand(String label, String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            return false;
+        }
+
+        // Parse number of rounds
+        int rounds = 10;
+        if (args.length > 2) {
+            if (!args[2].matches("(\\d){1,6}")) {
+                System.err.println("Invalid number of rounds");
+                return true;
+            }
+            rounds = Math.max(1, Integer.parseUnsignedInt(args[2]));
+        }
+
+        if (args[0].equalsIgnoreCase("extract")) {
+            final ExtractionBenchmark benchmark;
+            try {
+                // Load recorded pages
+                benchmark = new ExtractionBenchmark(Bot.getInstance().getParser().getExtractors(), new File(args[1]));
+            } catch (IOException e) {
+                System.err.println("Couldn't load recorded pages: " + e.getMessage());
+                return true;
+            }
+
+            if (benchmark.getPageCount() == 0) {
+                System.err.println("No recorded pages found");
+                return true;
+            }
+
+            System.out.println("Running extraction benchmark...");
+            System.out.print(benchmark.run(rounds));
+        } else if (args[0].equalsIgnoreCase("pricemap")) {
+            // Parse number of points per series
+            if (!args[1].matches("(\\d){1,8}")) {
+                System.err.println("Invalid number of points");
+                return true;
+            }
+
+            System.out.println("Running price map benchmark...");
+            System.out.print(new PriceMapBenchmark(Integer.parseUnsignedInt(args[1])).run(rounds));
+        } else {
+            return false;
+        }
+
+        return true;
+    }
+
+}
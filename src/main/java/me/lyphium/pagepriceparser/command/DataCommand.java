@@ -6,12 +6,13 @@ import me.lyphium.pagepriceparser.parser.Fuel;
 import me.lyphium.pagepriceparser.parser.PriceData;
 import me.lyphium.pagepriceparser.utils.Command;
 import me.lyphium.pagepriceparser.utils.CommandInfo;
+import me.lyphium.pagepriceparser.utils.PriceCursor;
 import me.lyphium.pagepriceparser.utils.PriceMap;
+import me.lyphium.pagepriceparser.utils.PriceSeries;
 import me.lyphium.pagepriceparser.utils.Utils;
 
 import java.sql.Timestamp;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -42,7 +43,7 @@ public class DataCommand extends Command {
         }
 
         Timestamp begin = new Timestamp(0);
-        Timestamp end = new Timestamp(System.currentTimeMillis());
+        Timestamp end = new Timestamp(Utils.currentTime());
 
         // Parse begin and end time
         if (args.length > 2) {
@@ -118,18 +119,14 @@ public class DataCommand extends Command {
             }
 
             // Calculation the first and last Price Entry
-            long min = System.currentTimeMillis(), max = 0;
+            long min = Utils.currentTime(), max = 0;
             boolean changed = false;
             for (PriceMap map : prices.values()) {
-                for (long l : map.keySet()) {
-                    if (l < min) {
-                        min = l;
-                        changed = true;
-                    }
-                    if (l > max) {
-                        max = l;
-                        changed = true;
-                    }
+                // Maps are sorted -> first and last key
+                if (!map.isEmpty()) {
+                    min = Math.min(min, map.getKey(0));
+                    max = Math.max(max, map.getKey(map.size() - 1));
+                    changed = true;
                 }
             }
             if (changed) {
@@ -178,28 +175,8 @@ public class DataCommand extends Command {
             }
             builder.append('\n');
 
-            // Collecting all available time entries
-            final Timestamp time = new Timestamp(0);
-            final List<Long> times = prices.values().parallelStream()
-                    .flatMapToLong(m -> Arrays.stream(m.keySet()))
-                    .distinct().sorted().boxed()
-                    .collect(Collectors.toList());
-
             // Table body
-            for (long l : times) {
-                time.setTime(l);
-                builder.append(String.format(" %s", Utils.toString(time)));
-
-                for (int j = 0; j < fuels.size(); j++) {
-                    final Fuel fuel = fuels.get(j);
-                    if (data.hasPrice(fuel, l)) {
-                        builder.append(String.format(" |%" + colSize[j] + ".3f€", data.getPrice(fuel, l)));
-                    } else {
-                        builder.append(String.format(" |%" + colSize[j] + "s ", ""));
-                    }
-                }
-                builder.append('\n');
-            }
+            appendRows(builder, fuels.stream().map(prices::get).collect(Collectors.toList()), colSize);
 
             // Printing Information page
             System.out.print(builder.toString());
@@ -241,18 +218,15 @@ public class DataCommand extends Command {
              */
 
             // Calculation the first and last Price Entry
-            long min = System.currentTimeMillis(), max = 0;
+            long min = Utils.currentTime(), max = 0;
             boolean changed = false;
             for (PriceData priceData : data) {
-                for (Long l : priceData.getPrices(fuel).keySet()) {
-                    if (l < min) {
-                        min = l;
-                        changed = true;
-                    }
-                    if (l > max) {
-                        max = l;
-                        changed = true;
-                    }
+                // Maps are sorted -> first and last key
+                final PriceMap map = priceData.getPrices(fuel);
+                if (!map.isEmpty()) {
+                    min = Math.min(min, map.getKey(0));
+                    max = Math.max(max, map.getKey(map.size() - 1));
+                    changed = true;
                 }
             }
             if (changed) {
@@ -316,28 +290,8 @@ public class DataCommand extends Command {
             }
             builder.append('\n');
 
-            // Collecting all available time entries
-            final Timestamp time = new Timestamp(0);
-            final List<Long> times = data.parallelStream()
-                    .flatMapToLong(m -> Arrays.stream(m.getPrices(fuel).keySet()))
-                    .distinct().sorted().boxed()
-                    .collect(Collectors.toList());
-
             // Table body
-            for (long l : times) {
-                time.setTime(l);
-                builder.append(String.format(" %s", Utils.toString(time)));
-
-                for (int j = 0; j < data.size(); j++) {
-                    final PriceData priceData = data.get(j);
-                    if (priceData.hasPrice(fuel, l)) {
-                        builder.append(String.format(" |%" + colSize[j] + ".3f€", priceData.getPrice(fuel, l)));
-                    } else {
-                        builder.append(String.format(" |%" + colSize[j] + "s ", ""));
-                    }
-                }
-                builder.append('\n');
-            }
+            appendRows(builder, data.stream().map(p -> p.getPrices(fuel)).collect(Collectors.toList()), colSize);
 
             // Printing Information page
             System.out.print(builder.toString());
@@ -393,4 +347,42 @@ public class DataCommand extends Command {
         return true;
     }
 
+    private void appendRows(StringBuilder builder, List<? extends PriceSeries> columns, int[] colSize) {
+        // Merging the sorted columns, every row is the next time of any column
+        final Timestamp time = new Timestamp(0);
+        final PriceCursor[] cursors = new PriceCursor[columns.size()];
+        final boolean[] available = new boolean[columns.size()];
+        for (int j = 0; j < cursors.length; j++) {
+            cursors[j] = columns.get(j).cursor();
+            available[j] = cursors[j].next();
+        }
+
+        while (true) {
+            long l = Long.MAX_VALUE;
+            boolean found = false;
+            for (int j = 0; j < cursors.length; j++) {
+                if (available[j] && cursors[j].key() <= l) {
+                    l = cursors[j].key();
+                    found = true;
+                }
+            }
+            if (!found) {
+                break;
+            }
+
+            time.setTime(l);
+            builder.append(String.format(" %s", Utils.toString(time)));
+
+            for (int j = 0; j < cursors.length; j++) {
+                if (available[j] && cursors[j].key() == l) {
+                    builder.append(String.format(" |%" + colSize[j] + ".3f€", cursors[j].value()));
+                    available[j] = cursors[j].next();
+                } else {
+                    builder.append(String.format(" |%" + colSize[j] + "s ", ""));
+                }
+            }
+            builder.append('\n');
+        }
+    }
+
 }
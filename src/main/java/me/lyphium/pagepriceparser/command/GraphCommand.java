@@ -2,6 +2,7 @@ package me.lyphium.pagepriceparser.command;
 
 import me.lyphium.pagepriceparser.Bot;
 import me.lyphium.pagepriceparser.database.DatabaseConnection;
+import me.lyphium.pagepriceparser.database.HistoryStore;
 import me.lyphium.pagepriceparser.parser.Fuel;
 import me.lyphium.pagepriceparser.parser.PriceData;
 import me.lyphium.pagepriceparser.utils.*;
@@ -57,7 +58,7 @@ public class GraphCommand extends Command {
         }
 
         Timestamp begin = new Timestamp(0);
-        Timestamp end = new Timestamp(System.currentTimeMillis());
+        Timestamp end = new Timestamp(Utils.currentTime());
 
         // Parse begin and end time
         if (args.length > 3) {
@@ -78,6 +79,11 @@ public class GraphCommand extends Command {
             }
         }
 
+        // Prices are read from the local history if available, the database only provides the pages
+        final HistoryStore history = database.getHistory();
+        final Timestamp from = history != null ? new Timestamp(0) : begin;
+        final Timestamp to = history != null ? new Timestamp(0) : end;
+
         // Handle each cathegory differently
         if (args[0].equalsIgnoreCase("id") || args[0].equalsIgnoreCase("name")) {
             final PriceData data;
@@ -89,7 +95,7 @@ public class GraphCommand extends Command {
                     final int id = Integer.parseUnsignedInt(args[1]);
 
                     // Get PriceData from database
-                    data = database.getPriceData(id, begin, end);
+                    data = database.getPriceData(id, from, to);
                 } else {
                     System.err.println("Invalid id format or to many digits");
                     return true;
@@ -99,7 +105,7 @@ public class GraphCommand extends Command {
                 final String name = args[1];
 
                 // Get PriceData from database
-                data = database.getMostSimilarPriceData(name, begin, end);
+                data = database.getMostSimilarPriceData(name, from, to);
             }
 
             // Check if data was found
@@ -109,7 +115,9 @@ public class GraphCommand extends Command {
             }
 
             // Price Informations by Fuel and Time
-            final Map<Fuel, PriceMap> prices = data.getPrices();
+            final Map<Fuel, PriceSeries> prices = history != null
+                    ? history.getSeries(data.getId(), begin.getTime(), end.getTime())
+                    : new EnumMap<Fuel, PriceSeries>(data.getPrices());
 
             // Apply pattern if exists
             if (args.length > 5) {
@@ -120,16 +128,16 @@ public class GraphCommand extends Command {
 
             String subTitle = null;
             SimpleDateFormat format = null;
-            final List<Triple<String, PriceMap, Color>> info = new ArrayList<>();
+            final List<Triple<String, PriceSeries, Color>> info = new ArrayList<>();
 
             // Apply value mapping
             if (args.length > 6) {
                 if (args[6].equalsIgnoreCase("course") && args.length == 7) {
                     // graph id 1 test 0 now .* course
-                    long startTime = System.currentTimeMillis(), endTime = 0;
+                    long startTime = Utils.currentTime(), endTime = 0;
 
-                    for (Entry<Fuel, PriceMap> entry : prices.entrySet()) {
-                        final PriceMap map = entry.getValue();
+                    for (Entry<Fuel, PriceSeries> entry : prices.entrySet()) {
+                        final PriceSeries map = entry.getValue();
                         final LongFunction<Float> func = createRegression(map);
 
                         final long fuelStartTime = map.getKey(0);
@@ -158,7 +166,7 @@ public class GraphCommand extends Command {
                         return true;
                     }
 
-                    long startTime = System.currentTimeMillis(), endTime = 0;
+                    long startTime = Utils.currentTime(), endTime = 0;
 
                     switch (type) {
                         // graph id 1 test 0 now .* average day
@@ -166,8 +174,8 @@ public class GraphCommand extends Command {
                             format = new SimpleDateFormat("HH:mm:ss");
                             format.setTimeZone(TimeZone.getTimeZone("UTC"));
 
-                            for (Entry<Fuel, PriceMap> entry : prices.entrySet()) {
-                                final PriceMap map = entry.getValue();
+                            for (Entry<Fuel, PriceSeries> entry : prices.entrySet()) {
+                                final PriceSeries map = entry.getValue();
                                 final Pair<Long, Long> times = getStartEndTime(type.getWeekDay(), map);
 
                                 final PriceMap updated = mapPriceMap(type.getWeekDay(), map, times.getFirst(), times.getSecond());
@@ -191,8 +199,8 @@ public class GraphCommand extends Command {
                             format = new SimpleDateFormat("EEEE HH:mm:ss");
                             format.setTimeZone(TimeZone.getTimeZone("UTC"));
 
-                            for (Entry<Fuel, PriceMap> entry : prices.entrySet()) {
-                                final PriceMap map = entry.getValue();
+                            for (Entry<Fuel, PriceSeries> entry : prices.entrySet()) {
+                                final PriceSeries map = entry.getValue();
                                 final Pair<Long, Long> times = getStartEndTime(type.getWeekDay(), map);
 
                                 final PriceMap updated = new PriceMap();
@@ -228,7 +236,7 @@ public class GraphCommand extends Command {
                 format = null;
 
                 // Map normal values
-                for (Entry<Fuel, PriceMap> entry : prices.entrySet()) {
+                for (Entry<Fuel, PriceSeries> entry : prices.entrySet()) {
                     info.add(new Triple<>(entry.getKey().getName(), entry.getValue(), entry.getKey().getColor()));
                 }
             }
@@ -261,26 +269,31 @@ public class GraphCommand extends Command {
             }
 
             // Get List of PriceData based on the fuel
-            final List<PriceData> data = database.getPriceData(fuel, begin, end);
+            final List<Pair<PriceData, PriceSeries>> data = history != null
+                    ? history.getSeries(database.getPages(), fuel, begin.getTime(), end.getTime())
+                    : database.getPriceData(fuel, begin, end).stream()
+                    .map(p -> new Pair<PriceData, PriceSeries>(p, p.getPrices(fuel)))
+                    .collect(Collectors.toList());
 
             // Apply pattern if exists
             if (args.length > 5) {
                 final String pattern = args[5];
-                data.removeIf(s -> !s.getName().matches(pattern));
+                data.removeIf(s -> !s.getFirst().getName().matches(pattern));
             }
 
             String subTitle = null;
             SimpleDateFormat format = null;
-            final List<Triple<String, PriceMap, Color>> info = new ArrayList<>();
+            final List<Triple<String, PriceSeries, Color>> info = new ArrayList<>();
 
             // Apply value mapping
             if (args.length > 6) {
                 if (args[6].equalsIgnoreCase("course") && args.length == 7) {
                     subTitle = "Verlauf";
-                    long startTime = System.currentTimeMillis(), endTime = 0;
+                    long startTime = Utils.currentTime(), endTime = 0;
 
-                    for (PriceData priceData : data) {
-                        final PriceMap map = priceData.getPrices(fuel);
+                    for (Pair<PriceData, PriceSeries> pair : data) {
+                        final PriceData priceData = pair.getFirst();
+                        final PriceSeries map = pair.getSecond();
                         final LongFunction<Float> func = createRegression(map);
 
                         final long fuelStartTime = map.getKey(0);
@@ -309,7 +322,7 @@ public class GraphCommand extends Command {
                         return true;
                     }
 
-                    long startTime = System.currentTimeMillis(), endTime = 0;
+                    long startTime = Utils.currentTime(), endTime = 0;
 
                     switch (type) {
                         // graph id 1 test 0 now .* average day
@@ -317,8 +330,9 @@ public class GraphCommand extends Command {
                             format = new SimpleDateFormat("HH:mm:ss");
                             format.setTimeZone(TimeZone.getTimeZone("UTC"));
 
-                            for (PriceData priceData : data) {
-                                final PriceMap map = priceData.getPrices(fuel);
+                            for (Pair<PriceData, PriceSeries> pair : data) {
+                                final PriceData priceData = pair.getFirst();
+                                final PriceSeries map = pair.getSecond();
                                 final Pair<Long, Long> times = getStartEndTime(type.getWeekDay(), map);
 
                                 final PriceMap updated = mapPriceMap(type.getWeekDay(), map, times.getFirst(), times.getSecond());
@@ -342,8 +356,9 @@ public class GraphCommand extends Command {
                             format = new SimpleDateFormat("EEEE dd HH:mm:ss");
                             format.setTimeZone(TimeZone.getTimeZone("UTC"));
 
-                            for (PriceData priceData : data) {
-                                final PriceMap map = priceData.getPrices(fuel);
+                            for (Pair<PriceData, PriceSeries> pair : data) {
+                                final PriceData priceData = pair.getFirst();
+                                final PriceSeries map = pair.getSecond();
                                 final Pair<Long, Long> times = getStartEndTime(type.getWeekDay(), map);
 
                                 final PriceMap updated = new PriceMap();
@@ -379,8 +394,8 @@ public class GraphCommand extends Command {
                 format = null;
 
                 // Map normal values
-                for (PriceData priceData : data) {
-                    info.add(new Triple<>(priceData.getName(), priceData.getPrices(fuel), priceData.getColor()));
+                for (Pair<PriceData, PriceSeries> pair : data) {
+                    info.add(new Triple<>(pair.getFirst().getName(), pair.getSecond(), pair.getFirst().getColor()));
                 }
             }
 
@@ -405,7 +420,7 @@ public class GraphCommand extends Command {
         return true;
     }
 
-    private PriceMap mapPriceMap(int day, PriceMap map, long startTime, long endTime) {
+    private PriceMap mapPriceMap(int day, PriceSeries map, long startTime, long endTime) {
         final TimeZone tz = TimeZone.getDefault();
         final Calendar cal = Calendar.getInstance();
 
@@ -452,7 +467,7 @@ public class GraphCommand extends Command {
         return updated;
     }
 
-    private Pair<Long, Long> getStartEndTime(int day, PriceMap map) {
+    private Pair<Long, Long> getStartEndTime(int day, PriceSeries map) {
         final Calendar cal = Calendar.getInstance();
 
         cal.setTimeInMillis(map.getKey(0));
@@ -492,46 +507,29 @@ public class GraphCommand extends Command {
         return new Pair<>(startTime, endTime);
     }
 
-    private LongFunction<Float> createRegression(PriceMap map) {
-        final double meanX = mean(map.keySet());
-        final double meanY = mean(map.values());
-
-        final double m = covariance(map.keySet(), meanX, map.values(), meanY) / variance(map.keySet(), meanX);
-        final double n = meanY - m * meanX;
+    private LongFunction<Float> createRegression(PriceSeries map) {
+        // Two passes over the prices without copying them, means first, then covariance and variance
+        final int size = map.size();
 
-        return l -> (float) (l * m + n);
-    }
-
-    private double mean(float[] values) {
-        double sum = 0;
-        for (float v : values) {
-            sum += v;
+        double sumX = 0, sumY = 0;
+        for (int i = 0; i < size; i++) {
+            sumX += map.getKey(i);
+            sumY += map.get(i);
         }
-        return sum / values.length;
-    }
-
-    private double mean(long[] values) {
-        double sum = 0;
-        for (long v : values) {
-            sum += v;
+        final double meanX = sumX / size;
+        final double meanY = sumY / size;
+
+        double covariance = 0, variance = 0;
+        for (int i = 0; i < size; i++) {
+            final double dx = map.getKey(i) - meanX;
+            covariance += dx * (map.get(i) - meanY);
+            variance += dx * dx;
         }
-        return sum / values.length;
-    }
 
-    private double covariance(long[] x, double meanX, float[] y, double meanY) {
-        double c = 0;
-        for (int i = 0; i < x.length; i++) {
-            c += (x[i] - meanX) * (y[i] - meanY);
-        }
-        return c;
-    }
+        final double m = covariance / variance;
+        final double n = meanY - m * meanX;
 
-    private double variance(long[] values, double mean) {
-        double v = 0;
-        for (long value : values) {
-            v += (value - mean) * (value - mean);
-        }
-        return v;
+        return l -> (float) (l * m + n);
     }
 
-}
\ No newline at end of file
+}
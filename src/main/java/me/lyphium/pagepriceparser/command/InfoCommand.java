@@ -2,6 +2,7 @@ package me.lyphium.pagepriceparser.command;
 
 import me.lyphium.pagepriceparser.Bot;
 import me.lyphium.pagepriceparser.database.DatabaseConnection;
+import me.lyphium.pagepriceparser.database.HistoryStore;
 import me.lyphium.pagepriceparser.parser.Fuel;
 import me.lyphium.pagepriceparser.parser.PriceData;
 import me.lyphium.pagepriceparser.utils.*;
@@ -9,6 +10,8 @@ import me.lyphium.pagepriceparser.utils.*;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -73,10 +76,14 @@ public class InfoCommand extends Command {
                 return true;
             }
         } else {
-            timestamp = new Timestamp(System.currentTimeMillis());
+            timestamp = new Timestamp(Utils.currentTime());
         }
         final long time = timestamp.getTime();
 
+        // Prices are read from the local history if available, the database only provides the pages
+        final HistoryStore history = database.getHistory();
+        final Timestamp end = new Timestamp(history != null ? 0 : Utils.currentTime());
+
         if (args[0].equalsIgnoreCase("id") || args[0].equalsIgnoreCase("name")) {
             final PriceData data;
 
@@ -87,7 +94,7 @@ public class InfoCommand extends Command {
                     final int id = Integer.parseUnsignedInt(args[1]);
 
                     // Get PriceData from database
-                    data = database.getPriceData(id, new Timestamp(0), new Timestamp(System.currentTimeMillis()));
+                    data = database.getPriceData(id, new Timestamp(0), end);
                 } else {
                     System.err.println("Invalid id format or to many digits");
                     return true;
@@ -97,7 +104,7 @@ public class InfoCommand extends Command {
                 final String name = args[1];
 
                 // Get PriceData from database
-                data = database.getMostSimilarPriceData(name, new Timestamp(0), new Timestamp(System.currentTimeMillis()));
+                data = database.getMostSimilarPriceData(name, new Timestamp(0), end);
             }
 
             // Check if data was found
@@ -125,7 +132,9 @@ public class InfoCommand extends Command {
             builder.append(String.format("URL:     %s\n", data.getUrl()));
             builder.append(String.format("Address: %s\n\n", data.getAddress()));
 
-            final Map<Fuel, PriceMap> prices = data.getPrices();
+            final Map<Fuel, PriceSeries> prices = history != null
+                    ? history.getSeries(data.getId())
+                    : new EnumMap<Fuel, PriceSeries>(data.getPrices());
 
             // Apply pattern if exists
             if (args.length > 3) {
@@ -134,7 +143,7 @@ public class InfoCommand extends Command {
             }
 
             // Check if List of PriceData contains Price Information
-            if (prices.size() == 0 || prices.values().stream().map(PriceMap::size).count() == 0) {
+            if (prices.size() == 0 || prices.values().stream().map(PriceSeries::size).count() == 0) {
                 builder.append("No price data available");
                 System.out.println(builder.toString());
                 return true;
@@ -164,21 +173,18 @@ public class InfoCommand extends Command {
             }
             builder.append("\n");
 
+            // Minimum and maximum of each fuel, logarithmic for series keeping their index (history)
+            final PriceAggregate[] aggregates = new PriceAggregate[fuels.size()];
+            for (int j = 0; j < fuels.size(); j++) {
+                aggregates[j] = prices.get(fuels.get(j)).aggregate();
+            }
+
             // Table body
             // Minimum Price
             builder.append("       Minimum Price");
 
             for (int j = 0; j < fuels.size(); j++) {
-                final Fuel fuel = fuels.get(j);
-
-                float min = Float.MAX_VALUE;
-                for (float v : prices.get(fuel).values()) {
-                    if (v < min) {
-                        min = v;
-                    }
-                }
-
-                builder.append(String.format(" |%" + colSize[j] + ".3f€", min));
+                builder.append(String.format(" |%" + colSize[j] + ".3f€", aggregates[j].getMin()));
             }
 
             // Price of time
@@ -201,16 +207,7 @@ public class InfoCommand extends Command {
             builder.append("\n       Maximum Price");
 
             for (int j = 0; j < fuels.size(); j++) {
-                final Fuel fuel = fuels.get(j);
-
-                float max = Float.MIN_VALUE;
-                for (float v : prices.get(fuel).values()) {
-                    if (v > max) {
-                        max = v;
-                    }
-                }
-
-                builder.append(String.format(" |%" + colSize[j] + ".3f€", max));
+                builder.append(String.format(" |%" + colSize[j] + ".3f€", aggregates[j].getMax()));
             }
 
             System.out.println(builder.toString());
@@ -240,7 +237,9 @@ public class InfoCommand extends Command {
              *    Max |        |        |
              */
 
-            final List<PriceData> data = database.getPriceData(fuel, new Timestamp(0), new Timestamp(System.currentTimeMillis()));
+            final List<PriceData> data = history != null
+                    ? database.getPages()
+                    : database.getPriceData(fuel, new Timestamp(0), new Timestamp(Utils.currentTime()));
 
             // Apply pattern if exists
             if (args.length > 3) {
@@ -248,12 +247,24 @@ public class InfoCommand extends Command {
                 data.removeIf(s -> !s.getName().matches(pattern));
             }
 
+            // Prices of each page, pages without prices of the fuel are skipped
+            final List<PriceSeries> series = new ArrayList<>();
+            for (Iterator<PriceData> it = data.iterator(); it.hasNext(); ) {
+                final PriceData page = it.next();
+                final PriceSeries prices = history != null ? history.getSeries(page.getId(), fuel) : page.getPrices(fuel);
+                if (prices == null || prices.isEmpty()) {
+                    it.remove();
+                } else {
+                    series.add(prices);
+                }
+            }
+
             // Building the head of the Information page
             final StringBuilder builder = new StringBuilder("--------- Information Page ---------\n");
             builder.append(String.format("Fuel:  %s\n\n", fuel.getName()));
 
             // Check if List of PriceData contains Price Information
-            if (data.isEmpty() || data.stream().map(p -> p.getPrices(fuel).size()).count() == 0) {
+            if (data.isEmpty()) {
                 builder.append("No price data available");
                 System.out.println(builder.toString());
                 return true;
@@ -301,32 +312,27 @@ public class InfoCommand extends Command {
                 builder.append("+").append(new String(new char[colSize[i] + 2]).replace('\0', '-'));
             }
 
+            // Minimum and maximum of each page
+            final PriceAggregate[] aggregates = new PriceAggregate[series.size()];
+            for (int j = 0; j < series.size(); j++) {
+                aggregates[j] = series.get(j).aggregate();
+            }
+
             // Table body
             // Minimum Price
             builder.append("\n       Minimum Price");
 
             for (int j = 0; j < data.size(); j++) {
-                final PriceData priceData = data.get(j);
-
-                float min = Float.MAX_VALUE;
-                for (float v : priceData.getPrices(fuel).values()) {
-                    if (v < min) {
-                        min = v;
-                    }
-                }
-
-                builder.append(String.format(" |%" + colSize[j] + ".3f€", min));
+                builder.append(String.format(" |%" + colSize[j] + ".3f€", aggregates[j].getMin()));
             }
 
             // Price of time
             builder.append(String.format("\n %s", Utils.toString(timestamp)));
 
             for (int j = 0; j < data.size(); j++) {
-                final PriceData priceData = data.get(j);
-
-                final int index = priceData.getPrices(fuel).nearestIndexOf(time) - 1;
+                final int index = series.get(j).nearestIndexOf(time) - 1;
                 if (index >= 0) {
-                    final float price = priceData.getPrices(fuel).get(index);
+                    final float price = series.get(j).get(index);
 
                     builder.append(String.format(" |%" + colSize[j] + ".3f€", price));
                 } else {
@@ -338,16 +344,7 @@ public class InfoCommand extends Command {
             builder.append("\n       Maximum Price");
 
             for (int j = 0; j < data.size(); j++) {
-                final PriceData priceData = data.get(j);
-
-                float max = Float.MIN_VALUE;
-                for (float v : priceData.getPrices(fuel).values()) {
-                    if (v > max) {
-                        max = v;
-                    }
-                }
-
-                builder.append(String.format(" |%" + colSize[j] + ".3f€", max));
+                builder.append(String.format(" |%" + colSize[j] + ".3f€", aggregates[j].getMax()));
             }
 
             System.out.println(builder.toString());
@@ -0,0 +1,112 @@
+package me.lyphium.pagepriceparser.command;
+
+import me.lyphium.pagepriceparser.Bot;
+import me.lyphium.pagepriceparser.database.DatabaseConnection;
+import me.lyphium.pagepriceparser.parser.PriceData;
+import me.lyphium.pagepriceparser.parser.SimulatedSource;
+import me.lyphium.pagepriceparser.parser.Simulation;
+import me.lyphium.pagepriceparser.utils.Command;
+import me.lyphium.pagepriceparser.utils.CommandInfo;
+import me.lyphium.pagepriceparser.utils.SimulatedClock;
+import me.lyphium.pagepriceparser.utils.Utils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@CommandInfo(
+        description = "Fast-forwards the simulated clock and stores synthetic prices (requires -simulate)",
+        shortUsage = "simulate <time> [pages]",
+        usage = "simulate <time> [pages] [failure rate]",
+        aliases = "sim"
+)
+public class SimulateCommand extends Command {
+
+    public SimulateCommand() {
+        super("simulate");
+    }
+
+    @Override
+    public boolean onCommand(String label, String[] args) {
+        if (args.length < 1 || args.length > 3) {
+            return false;
+        }
+
+        // Real time can't be fast-forwarded
+        if (!(Utils.getClock() instanceof SimulatedClock)) {
+            System.err.println("Only available in simulation mode, start with '-simulate <time>'");
+            return true;
+        }
+        final SimulatedClock clock = (SimulatedClock) Utils.getClock();
+
+        // Parse simulated time
+        final long span = Utils.calculatePeriod(args[0]);
+        if (span <= 0) {
+            System.err.println("Invalid time");
+            return true;
+        }
+
+        // Parse minimum number of pages
+        int pages = 0;
+        if (args.length > 1) {
+            if (!args[1].matches("(\\d){1,5}")) {
+                System.err.println("Invalid number of pages");
+                return true;
+            }
+            pages = Integer.parseUnsignedInt(args[1]);
+        }
+
+        double failureRate = 0;
+        if (args.length > 2) {
+            if (!args[2].matches("[01](\\.\\d+)?|\\.\\d+")) {
+                System.err.println("Failure rate must be between 0 and 1");
+                return true;
+            }
+            failureRate = Double.parseDouble(args[2]);
+        }
+
+        final DatabaseConnection database = Bot.getInstance().getDatabase();
+
+        // Checking if the connection to the database is available, otherwise can't store prices
+        if (!database.isConnected()) {
+            System.err.println("No connection available");
+            return true;
+        }
+
+        addPages(database, pages);
+
+        final List<PriceData> data = database.getPages();
+        if (data.isEmpty()) {
+            System.err.println("No pages to simulate");
+            return true;
+        }
+
+        System.out.println("Simulating " + data.size() + " pages for " + (span / 1000) + "sec...");
+        new Simulation(Bot.getInstance().getParser(), database, clock, failureRate).run(span);
+
+        return true;
+    }
+
+    private void addPages(DatabaseConnection database, int count) {
+        // Pages of earlier runs are used again
+        final Set<String> existing = database.getPages().stream().map(PriceData::getUrl).collect(Collectors.toSet());
+
+        int added = 0;
+        for (int id = 0; id < count; id++) {
+            final String url = SimulatedSource.URL + id;
+            if (existing.contains(url)) {
+                continue;
+            }
+
+            final String address = String.format("Simstraße %d, %05d Simstadt", id, 10000 + id % 90000);
+            if (database.addPage(new PriceData(-1, "Sim " + id, url, address, Utils.randomColor()))) {
+                added++;
+            }
+        }
+
+        if (added > 0) {
+            System.out.println("Added " + added + " simulated pages to database");
+        }
+    }
+
+}
@@ -0,0 +1,178 @@
+package me.lyphium.pagepriceparser.command;
+
+import me.lyphium.pagepriceparser.Bot;
+import me.lyphium.pagepriceparser.parser.CircuitBreaker;
+import me.lyphium.pagepriceparser.parser.PageClient.HostStats;
+import me.lyphium.pagepriceparser.parser.PageParser;
+import me.lyphium.pagepriceparser.parser.PageQueue;
+import me.lyphium.pagepriceparser.parser.PageQueue.PageTask;
+import me.lyphium.pagepriceparser.parser.PageSchedule;
+import me.lyphium.pagepriceparser.parser.PageSchedule.PageState;
+import me.lyphium.pagepriceparser.utils.Command;
+import me.lyphium.pagepriceparser.utils.CommandInfo;
+import me.lyphium.pagepriceparser.utils.Utils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+@CommandInfo(
+        description = "Shows the state of the page parser",
+        usage = "status [intervals|queue]"
+)
+public class StatusCommand extends Command {
+
+    public StatusCommand() {
+        super("status");
+    }
+
+    @Override
+    public boolean onCommand(String label, String[] args) {
+        if (args.length > 1) {
+            return false;
+        }
+
+        final PageParser parser = Bot.getInstance().getParser();
+
+        if (args.length == 1) {
+            if (args[0].equalsIgnoreCase("intervals")) {
+                printIntervals(parser);
+            } else if (args[0].equalsIgnoreCase("queue")) {
+                printQueue(parser);
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        final StringBuilder builder = new StringBuilder("----------- Parser Status -----------\n");
+
+        // Thread pools with their current load
+        builder.append("» ").append(parser.getFetchPool()).append('\n');
+        builder.append("» ").append(parser.getParsePool()).append('\n');
+
+        // Circuit breaker of every host
+        final Map<String, CircuitBreaker> breakers = parser.getBreakers();
+        if (!breakers.isEmpty()) {
+            final int offset = breakers.keySet().stream().mapToInt(String::length).max().orElse(0) + 1;
+
+            builder.append("\nHosts:\n");
+            for (Entry<String, CircuitBreaker> entry : breakers.entrySet()) {
+                builder.append(String.format("» %-" + offset + "s %s\n", entry.getKey() + ":", entry.getValue()));
+            }
+        }
+
+        // Traffic and connect latency of every host
+        final Map<String, HostStats> traffic = parser.getTraffic();
+        if (!traffic.isEmpty()) {
+            final int offset = traffic.keySet().stream().mapToInt(String::length).max().orElse(0) + 1;
+
+            builder.append("\nTraffic:\n");
+            for (Entry<String, HostStats> entry : traffic.entrySet()) {
+                builder.append(String.format("» %-" + offset + "s %s\n", entry.getKey() + ":", entry.getValue()));
+            }
+        }
+
+        System.out.print(builder.toString());
+
+        return true;
+    }
+
+    private void printIntervals(PageParser parser) {
+        final PageSchedule schedule = parser.getSchedule();
+
+        // Check if adaptive intervals are enabled
+        if (schedule == null) {
+            System.out.println("Adaptive intervals are disabled");
+            return;
+        }
+
+        final List<PageState> states = schedule.getStates();
+        if (states.isEmpty()) {
+            System.out.println("No pages scheduled yet");
+            return;
+        }
+
+        /*
+         *     ID | Name  | Interval | Changes | Next Check
+         *  ------+-------+----------+---------+------------
+         *      1 | Shell |   3600sec |       0 | 01.01.2020 12:00:00
+         */
+
+        final int nameSize = Math.max(4, states.stream().mapToInt(s -> s.getName().length()).max().orElse(0));
+
+        final StringBuilder builder = new StringBuilder("---------- Page Intervals ----------\n");
+        builder.append(String.format("%6s | %-" + nameSize + "s | %10s | %7s | %s\n", "ID", "Name", "Interval", "Changes", "Next Check"));
+        builder.append(new String(new char[nameSize + 54]).replace('\0', '-')).append('\n');
+
+        for (PageState state : states) {
+            builder.append(String.format(
+                    "%6d | %-" + nameSize + "s | %7dsec | %7d | %s\n",
+                    state.getId(), state.getName(), state.getInterval() / 1000, state.getChanges(),
+                    Utils.toString(new Date(state.getNextCheck()))
+            ));
+        }
+
+        System.out.print(builder.toString());
+    }
+
+    private void printQueue(PageParser parser) {
+        final PageQueue queue = parser.getQueue();
+
+        // Check if the page queue is enabled
+        if (queue == null) {
+            System.out.println("Page queue is disabled");
+            return;
+        }
+
+        final List<PageTask> tasks = queue.getTasks();
+        if (tasks.isEmpty()) {
+            System.out.println("No pages queued yet");
+            return;
+        }
+
+        /*
+         *     ID | Name  | Checks | Last Late | Avg Late | Max Late | Waiting | Result
+         *  ------+-------+--------+-----------+----------+----------+---------+---------
+         *      1 | Shell |     12 |      0sec |     1sec |    10sec |    0sec | UPDATED
+         */
+
+        final long now = Utils.currentTime();
+        final int nameSize = Math.max(4, tasks.stream().mapToInt(t -> t.getName().length()).max().orElse(0));
+
+        long total = 0, max = 0, waiting = 0;
+        int overdue = 0;
+
+        final StringBuilder builder = new StringBuilder("------------ Page Queue ------------\n");
+        builder.append(String.format("%6s | %-" + nameSize + "s | %6s | %9s | %9s | %9s | %9s | %s\n",
+                "ID", "Name", "Checks", "Last Late", "Avg Late", "Max Late", "Waiting", "Result"));
+        builder.append(new String(new char[nameSize + 90]).replace('\0', '-')).append('\n');
+
+        for (PageTask task : tasks) {
+            final long wait = task.getWaiting(now);
+            builder.append(String.format(
+                    "%6d | %-" + nameSize + "s | %6d | %6dsec | %6dsec | %6dsec | %6dsec | %s\n",
+                    task.getId(), task.getName(), task.getChecks(), task.getLastLateness() / 1000,
+                    task.getAverageLateness() / 1000, task.getMaxLateness() / 1000, wait / 1000,
+                    task.isActive() ? "RUNNING" : task.getLastResult() != null ? task.getLastResult() : "-"
+            ));
+
+            total += task.getAverageLateness();
+            max = Math.max(max, task.getMaxLateness());
+            waiting = Math.max(waiting, wait);
+            if (wait > 0) {
+                overdue++;
+            }
+        }
+
+        // Summary over all pages
+        builder.append(String.format("\n» %d pages, %d queued, %d/%d running\n",
+                tasks.size(), queue.getQueued(), queue.getRunning(), queue.getWorkerCount()));
+        builder.append(String.format("» Lateness: %dsec avg, %dsec max\n", total / tasks.size() / 1000, max / 1000));
+        builder.append(String.format("» Overdue: %d pages, longest waiting %dsec\n", overdue, waiting / 1000));
+
+        System.out.print(builder.toString());
+    }
+
+}
@@ -0,0 +1,136 @@
+package me.lyphium.pagepriceparser.command;
+
+import me.lyphium.pagepriceparser.Bot;
+import me.lyphium.pagepriceparser.database.DatabaseConnection;
+import me.lyphium.pagepriceparser.parser.PriceData;
+import me.lyphium.pagepriceparser.stub.StationServer;
+import me.lyphium.pagepriceparser.utils.Command;
+import me.lyphium.pagepriceparser.utils.CommandInfo;
+import me.lyphium.pagepriceparser.utils.Utils;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@CommandInfo(
+        description = "Runs a local server with synthetic station pages for load tests",
+        shortUsage = "stub <start|stop|pages> [value]",
+        usage = "stub start <port> <stations> [latency] [jitter] [failure rate] [drift] | stub stop | stub pages"
+)
+public class StubCommand extends Command {
+
+    private StationServer server;
+
+    public StubCommand() {
+        super("stub");
+    }
+
+    @Override
+    public boolean onCommand(String label, String[] args) {
+        if (args.length == 0) {
+            System.out.println(server != null ? server : "Station server isn't running");
+            return true;
+        }
+
+        if (args[0].equalsIgnoreCase("start")) {
+            return start(args);
+        } else if (args[0].equalsIgnoreCase("stop")) {
+            if (server == null) {
+                System.err.println("Station server isn't running");
+                return true;
+            }
+
+            server.stop();
+            System.out.println("Stopped station server");
+            server = null;
+        } else if (args[0].equalsIgnoreCase("pages")) {
+            addPages();
+        } else {
+            return false;
+        }
+
+        return true;
+    }
+
+    private boolean start(String[] args) {
+        if (args.length < 3 || args.length > 7) {
+            return false;
+        }
+
+        if (server != null) {
+            System.err.println("Station server is already running");
+            return true;
+        }
+
+        // Parse port and number of stations
+        if (!args[1].matches("(\\d){1,5}") || !args[2].matches("(\\d){1,7}")) {
+            System.err.println("Invalid port or number of stations");
+            return true;
+        }
+        final int port = Integer.parseUnsignedInt(args[1]);
+        final int stations = Integer.parseUnsignedInt(args[2]);
+
+        final long latency = args.length > 3 ? Math.max(0, Utils.calculatePeriod(args[3])) : 0;
+        final long jitter = args.length > 4 ? Math.max(0, Utils.calculatePeriod(args[4])) : 0;
+
+        double failureRate = 0;
+        if (args.length > 5) {
+            if (!args[5].matches("[01](\\.\\d+)?|\\.\\d+")) {
+                System.err.println("Failure rate must be between 0 and 1");
+                return true;
+            }
+            failureRate = Double.parseDouble(args[5]);
+        }
+
+        final long drift = args.length > 6 ? Utils.calculatePeriod(args[6]) : 10 * 60 * 1000;
+
+        final StationServer server = new StationServer(port, stations, latency, jitter, failureRate, drift);
+        try {
+            server.start();
+        } catch (IOException e) {
+            System.err.println("Couldn't start station server: " + e.getMessage());
+            return true;
+        }
+        this.server = server;
+
+        // Generated pages are read by the extractors of the sites they imitate
+        server.getAliases().forEach(Bot.getInstance().getParser().getExtractors()::alias);
+
+        System.out.println("Started station server on port " + port + " with " + stations + " stations");
+        return true;
+    }
+
+    private void addPages() {
+        if (server == null) {
+            System.err.println("Station server isn't running");
+            return;
+        }
+
+        final DatabaseConnection database = Bot.getInstance().getDatabase();
+
+        // Checking if the connection to the database is available, otherwise can't add pages
+        if (!database.isConnected()) {
+            System.err.println("No connection available");
+            return;
+        }
+
+        // Stations already in the database aren't added again
+        final Set<String> existing = database.getPages().stream().map(PriceData::getUrl).collect(Collectors.toSet());
+
+        int added = 0;
+        for (int id = 0; id < server.getStations(); id++) {
+            final String url = server.getUrl(id);
+            if (existing.contains(url)) {
+                continue;
+            }
+
+            final String address = String.format("Stubstraße %d, %05d Stubstadt", id, 10000 + id % 90000);
+            if (database.addPage(new PriceData(-1, "Stub " + id, url, address, Utils.randomColor()))) {
+                added++;
+            }
+        }
+
+        System.out.println("Added " + added + " station pages to database");
+    }
+
+}
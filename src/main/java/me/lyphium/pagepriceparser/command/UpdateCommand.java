@@ -1,12 +1,14 @@
 package me.lyphium.pagepriceparser.command;
 
 import me.lyphium.pagepriceparser.Bot;
+import me.lyphium.pagepriceparser.parser.PageParser;
+import me.lyphium.pagepriceparser.parser.UpdateCycle;
 import me.lyphium.pagepriceparser.utils.Command;
 import me.lyphium.pagepriceparser.utils.CommandInfo;
 
 @CommandInfo(
         description = "Updates the prices now",
-        usage = "update"
+        usage = "update [status]"
 )
 public class UpdateCommand extends Command {
 
@@ -16,13 +18,38 @@ public class UpdateCommand extends Command {
 
     @Override
     public boolean onCommand(String label, String[] args) {
-        if (args.length > 0) {
+        if (args.length > 1) {
             return false;
         }
 
-        Bot.getInstance().getParser().update();
+        final PageParser parser = Bot.getInstance().getParser();
+
+        // Show the progress of the current cycle
+        if (args.length == 1) {
+            if (!args[0].equalsIgnoreCase("status")) {
+                return false;
+            }
+
+            final UpdateCycle cycle = parser.getRunningCycle();
+            System.out.println(cycle != null ? "» " + cycle : "No update running");
+            return true;
+        }
+
+        // Update runs in the background, a running or waiting update is joined instead of starting a new one
+        final UpdateCycle running = parser.getRunningCycle();
+        parser.trigger().whenComplete((cycle, e) -> {
+            if (e != null) {
+                System.err.println("Couldn't update prices: " + e.getMessage());
+            }
+        });
+
+        if (running != null && running.isFull()) {
+            System.out.println("Joined the running update, see 'update status' for its progress");
+        } else {
+            System.out.println("Started update, see 'update status' for its progress");
+        }
 
         return true;
     }
 
-}
\ No newline at end of file
+}
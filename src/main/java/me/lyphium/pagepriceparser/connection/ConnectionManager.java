@@ -10,6 +10,7 @@ import me.lyphium.pagepriceparser.parser.Fuel;
 import me.lyphium.pagepriceparser.parser.PriceData;
 import me.lyphium.pagepriceparser.utils.Packet;
 import me.lyphium.pagepriceparser.utils.PriceMap;
+import me.lyphium.pagepriceparser.utils.Utils;
 
 import java.io.*;
 import java.net.ServerSocket;
@@ -138,7 +139,7 @@ public class ConnectionManager extends Thread {
                 String name = null;
                 Fuel fuel = null;
                 final Timestamp begin = new Timestamp(0);
-                final Timestamp end = new Timestamp(System.currentTimeMillis());
+                final Timestamp end = new Timestamp(Utils.currentTime());
 
                 // Parse arguments by type
                 for (int i = 0; i < types.length; i++) {
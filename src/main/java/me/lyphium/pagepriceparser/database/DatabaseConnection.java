@@ -1,6 +1,8 @@
 package me.lyphium.pagepriceparser.database;
 
 import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+import lombok.Setter;
 import me.lyphium.pagepriceparser.parser.Fuel;
 import me.lyphium.pagepriceparser.parser.PriceData;
 import me.lyphium.pagepriceparser.utils.Pair;
@@ -10,6 +12,8 @@ import me.lyphium.pagepriceparser.utils.Utils;
 import java.awt.*;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -19,6 +23,11 @@ public class DatabaseConnection {
 
     private final HikariDataSource source;
 
+    // Local copy of all saved prices, optional
+    @Getter
+    @Setter
+    private HistoryStore history;
+
     public DatabaseConnection(String host, int port, String database, String username, String password) {
         this.source = new HikariDataSource();
 
@@ -87,12 +96,41 @@ public class DatabaseConnection {
             statement.setTimestamp(3, end);
 
             try (ResultSet set = statement.executeQuery()) {
+                // Rows are collected per fuel and sorted once, instead of inserting every row into a sorted map
+                final Map<Fuel, PriceMap.Builder> builders = new EnumMap<>(Fuel.class);
+
                 while (set.next()) {
                     final Fuel fuel = Fuel.getById(set.getInt("fuelid"));
                     final long time = set.getTimestamp("time").getTime();
                     final float value = set.getFloat("value");
-                    data.addPrice(fuel, time, value);
+                    builders.computeIfAbsent(fuel, f -> PriceMap.builder()).add(time, value);
                 }
+
+                builders.forEach((fuel, builder) -> data.addPrices(fuel, builder.build()));
+            }
+            return true;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    public boolean loadPriceData(Collection<PriceData> data, Timestamp begin, Timestamp end) {
+        if (data.isEmpty()) {
+            return true;
+        }
+
+        final Map<Integer, PriceData> pages = new HashMap<>();
+        for (PriceData page : data) {
+            pages.put(page.getId(), page);
+        }
+
+        // Prices of up to 500 pages per query, instead of one query per page
+        final List<Integer> ids = new ArrayList<>(pages.keySet());
+        try (Connection con = source.getConnection()) {
+            for (int from = 0; from < ids.size(); from += 500) {
+                final List<Integer> batch = ids.subList(from, Math.min(from + 500, ids.size()));
+                loadPriceData(con, pages, batch, begin, end);
             }
             return true;
         } catch (SQLException e) {
@@ -101,6 +139,41 @@ public class DatabaseConnection {
         }
     }
 
+    private void loadPriceData(Connection con, Map<Integer, PriceData> pages, List<Integer> ids,
+                               Timestamp begin, Timestamp end) throws SQLException {
+        final StringBuilder sql = new StringBuilder("SELECT p.pageid, p.fuelid, p.time, p.value " +
+                "FROM prices p " +
+                "INNER JOIN fuels f on p.fuelid = f.id " +
+                "WHERE p.time BETWEEN ? AND ? AND p.pageid IN (");
+        for (int i = 0; i < ids.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(");");
+
+        try (PreparedStatement statement = con.prepareStatement(sql.toString())) {
+            statement.setTimestamp(1, begin);
+            statement.setTimestamp(2, end);
+            for (int i = 0; i < ids.size(); i++) {
+                statement.setInt(i + 3, ids.get(i));
+            }
+
+            try (ResultSet set = statement.executeQuery()) {
+                final Map<Integer, Map<Fuel, PriceMap.Builder>> builders = new HashMap<>();
+
+                while (set.next()) {
+                    final int id = set.getInt("pageid");
+                    final Fuel fuel = Fuel.getById(set.getInt("fuelid"));
+                    final long time = set.getTimestamp("time").getTime();
+                    final float value = set.getFloat("value");
+                    builders.computeIfAbsent(id, i -> new EnumMap<>(Fuel.class))
+                            .computeIfAbsent(fuel, f -> PriceMap.builder()).add(time, value);
+                }
+
+                builders.forEach((id, fuels) -> fuels.forEach((fuel, builder) -> pages.get(id).addPrices(fuel, builder.build())));
+            }
+        }
+    }
+
     public PriceData getPriceData(String name, Timestamp begin, Timestamp end) {
         final String sql = "SELECT id, url, address, color FROM pages WHERE LOWER(name) = LOWER(?) LIMIT 1;";
 
@@ -198,32 +271,30 @@ public class DatabaseConnection {
 
             try (ResultSet set = statement.executeQuery()) {
                 final Map<Integer, PriceData> data = new HashMap<>();
+                final Map<Integer, PriceMap.Builder> builders = new HashMap<>();
 
                 while (set.next()) {
                     final int id = set.getInt("id");
-                    final boolean existed = data.containsKey(id);
 
-                    final PriceData priceData;
-                    if (!existed) {
+                    if (!data.containsKey(id)) {
                         final String name = set.getString("name");
                         final String url = set.getString("url");
                         final String address = set.getString("address");
                         final Color color = Color.decode(set.getString("color"));
 
-                        priceData = new PriceData(id, name, url, address, color);
-                    } else {
-                        priceData = data.get(id);
+                        data.put(id, new PriceData(id, name, url, address, color));
+                        builders.put(id, PriceMap.builder());
                     }
 
                     final long time = set.getTimestamp("time").getTime();
                     final float value = set.getFloat("value");
 
-                    priceData.addPrice(fuel, time, value);
-                    if (!existed) {
-                        data.put(id, priceData);
-                    }
+                    builders.get(id).add(time, value);
                 }
 
+                // Prices of every page are sorted once
+                builders.forEach((id, builder) -> data.get(id).addPrices(fuel, builder.build()));
+
                 return new ArrayList<>(data.values());
             }
         } catch (SQLException e) {
@@ -268,6 +339,10 @@ public class DatabaseConnection {
                 }
             }
 
+            if (history != null) {
+                history.append(data);
+            }
+
             return true;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -358,6 +433,21 @@ public class DatabaseConnection {
         }
     }
 
+    public long getStorageSize() {
+        // Size of data and indices of the price table, only an estimate for InnoDB tables
+        final String sql = "SELECT data_length + index_length as size FROM information_schema.tables " +
+                "WHERE table_schema = DATABASE() AND table_name = 'prices';";
+
+        try (Connection con = source.getConnection();
+             PreparedStatement statement = con.prepareStatement(sql);
+             ResultSet set = statement.executeQuery()) {
+            return set.next() ? set.getLong("size") : -1;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
     public boolean isConnected() {
         try (Connection con = source.getConnection()) {
             return con.isValid(5);
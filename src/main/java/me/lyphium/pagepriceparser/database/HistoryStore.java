@@ -0,0 +1,177 @@
+package me.lyphium.pagepriceparser.database;
+
+import lombok.Getter;
+import me.lyphium.pagepriceparser.parser.Fuel;
+import me.lyphium.pagepriceparser.parser.PriceData;
+import me.lyphium.pagepriceparser.utils.MappedPriceMap;
+import me.lyphium.pagepriceparser.utils.Pair;
+import me.lyphium.pagepriceparser.utils.PriceMap;
+import me.lyphium.pagepriceparser.utils.PriceSeries;
+import me.lyphium.pagepriceparser.utils.Utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class HistoryStore {
+
+    /*
+     *  Full price history outside of the heap, one memory-mapped file per page and fuel:
+     *  directory/<page id>/<fuel id>.prices
+     *  The page cache of the OS keeps the files between restarts, only new prices are loaded from the database.
+     */
+    @Getter
+    private final File directory;
+
+    private final Map<String, MappedPriceMap> series = new ConcurrentHashMap<>();
+
+    public HistoryStore(File directory) {
+        this.directory = directory;
+    }
+
+    public int sync(DatabaseConnection database) {
+        final List<PriceData> pages = database.getPages();
+        if (pages == null) {
+            return 0;
+        }
+
+        int count = 0;
+        for (PriceData page : pages) {
+            // Load everything from the oldest last price of the stored fuels, new pages are loaded completely
+            long last = Long.MAX_VALUE;
+            for (PriceSeries stored : getSeries(page.getId()).values()) {
+                last = Math.min(last, stored.getKey(stored.size() - 1));
+            }
+            if (last == Long.MAX_VALUE) {
+                last = 0;
+            }
+
+            final PriceData data = new PriceData(page.getId(), page.getName(), page.getUrl(), page.getAddress(), page.getColor());
+            if (database.loadPriceData(data, new Timestamp(last), new Timestamp(Utils.currentTime()))) {
+                count += append(data);
+            }
+        }
+
+        force();
+        return count;
+    }
+
+    public int append(List<PriceData> data) {
+        int count = 0;
+        for (PriceData page : data) {
+            count += append(page);
+        }
+        return count;
+    }
+
+    public int append(PriceData page) {
+        int count = 0;
+        for (Entry<Fuel, PriceMap> entry : page.getPrices().entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+
+            try {
+                count += open(page.getId(), entry.getKey(), true).appendAll(entry.getValue());
+            } catch (IOException | IllegalStateException e) {
+                e.printStackTrace();
+            }
+        }
+        return count;
+    }
+
+    public PriceSeries getSeries(int id, Fuel fuel) {
+        try {
+            return open(id, fuel, false);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public Map<Fuel, PriceSeries> getSeries(int id) {
+        final Map<Fuel, PriceSeries> map = new EnumMap<>(Fuel.class);
+        for (Fuel fuel : Fuel.values()) {
+            final PriceSeries prices = getSeries(id, fuel);
+            if (prices != null && !prices.isEmpty()) {
+                map.put(fuel, prices);
+            }
+        }
+        return map;
+    }
+
+    public Map<Fuel, PriceSeries> getSeries(int id, long begin, long end) {
+        // Views of the prices between both times, nothing is copied to the heap
+        final Map<Fuel, PriceSeries> map = getSeries(id);
+        map.replaceAll((fuel, prices) -> prices.subSeries(begin, end));
+        map.values().removeIf(PriceSeries::isEmpty);
+        return map;
+    }
+
+    public List<Pair<PriceData, PriceSeries>> getSeries(List<PriceData> pages, Fuel fuel, long begin, long end) {
+        // Same as the database: only pages with prices of the fuel between both times
+        final List<Pair<PriceData, PriceSeries>> list = new ArrayList<>();
+        if (pages == null) {
+            return list;
+        }
+
+        for (PriceData page : pages) {
+            final PriceSeries series = getSeries(page.getId(), fuel);
+            if (series == null) {
+                continue;
+            }
+
+            final PriceSeries prices = series.subSeries(begin, end);
+            if (!prices.isEmpty()) {
+                list.add(new Pair<>(page, prices));
+            }
+        }
+
+        return list;
+    }
+
+    public void force() {
+        series.values().forEach(MappedPriceMap::force);
+    }
+
+    public void close() {
+        series.values().forEach(MappedPriceMap::close);
+        series.clear();
+    }
+
+    private MappedPriceMap open(int id, Fuel fuel, boolean create) throws IOException {
+        final String name = id + "/" + fuel.getId();
+
+        final MappedPriceMap opened = series.get(name);
+        if (opened != null) {
+            return opened;
+        }
+
+        final File file = new File(directory, name + ".prices");
+        if (!create && !file.exists()) {
+            return null;
+        }
+
+        synchronized (series) {
+            final MappedPriceMap existing = series.get(name);
+            if (existing != null) {
+                return existing;
+            }
+
+            if (!file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
+                throw new IOException("Couldn't create directory: " + file.getParentFile());
+            }
+
+            final MappedPriceMap map = new MappedPriceMap(file);
+            series.put(name, map);
+            return map;
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+package me.lyphium.pagepriceparser.parser;
+
+import lombok.Getter;
+
+public class CircuitBreaker {
+
+    public enum State {
+        // Requests pass through
+        CLOSED,
+        // Host is considered down, requests fail immediately
+        OPEN,
+        // A single probe request decides if the host is back
+        HALF_OPEN
+    }
+
+    public enum Permit {
+        // Request must not be sent
+        DENIED,
+        // Request can be sent as long as the circuit stays closed
+        NORMAL,
+        // Request is the probe of a half open circuit
+        PROBE
+    }
+
+    private final int threshold;
+    private final long openTime;
+
+    @Getter
+    private State state = State.CLOSED;
+    @Getter
+    private int failures = 0;
+    @Getter
+    private long openUntil = 0;
+
+    private boolean probing = false;
+
+    public CircuitBreaker(int threshold, long openTime) {
+        this.threshold = Math.max(1, threshold);
+        this.openTime = Math.max(0, openTime);
+    }
+
+    public synchronized Permit acquire() {
+        switch (state) {
+            case CLOSED:
+                return Permit.NORMAL;
+            case OPEN:
+                // Open time is over -> let exactly one request probe the host
+                if (System.currentTimeMillis() < openUntil) {
+                    return Permit.DENIED;
+                }
+                state = State.HALF_OPEN;
+                probing = true;
+                return Permit.PROBE;
+            case HALF_OPEN:
+            default:
+                // Only one probe at a time
+                if (probing) {
+                    return Permit.DENIED;
+                }
+                probing = true;
+                return Permit.PROBE;
+        }
+    }
+
+    public synchronized boolean isClosed() {
+        return state == State.CLOSED;
+    }
+
+    public synchronized void success() {
+        state = State.CLOSED;
+        failures = 0;
+        probing = false;
+    }
+
+    public synchronized void failure() {
+        failures++;
+        probing = false;
+
+        // Failed probe or too many failures in a row -> stop sending requests for a while
+        if (state == State.HALF_OPEN || failures >= threshold) {
+            state = State.OPEN;
+            openUntil = System.currentTimeMillis() + openTime;
+        }
+    }
+
+    public synchronized void release(Permit permit) {
+        // Request was never sent (e.g. cancelled), so the next request may probe the host instead
+        if (permit == Permit.PROBE) {
+            probing = false;
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        if (state == State.OPEN) {
+            final long remaining = Math.max(0, openUntil - System.currentTimeMillis());
+            return String.format("%s (%d failures, %dsec left)", state, failures, remaining / 1000);
+        }
+        return String.format("%s (%d failures)", state, failures);
+    }
+
+}
@@ -0,0 +1,198 @@
+package me.lyphium.pagepriceparser.parser;
+
+import me.lyphium.pagepriceparser.parser.extractor.ExtractorRegistry;
+import me.lyphium.pagepriceparser.parser.extractor.PriceExtractor;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+public class ExtractionBenchmark {
+
+    private final ExtractorRegistry extractors;
+
+    private final List<String> urls = new ArrayList<>();
+    private final List<byte[]> bodies = new ArrayList<>();
+
+    public ExtractionBenchmark(ExtractorRegistry extractors, File directory) throws IOException {
+        this.extractors = extractors;
+
+        /*
+         *  Recorded pages are stored by domain:
+         *  directory/clever-tanken.de/12345.html
+         *  directory/find.shell.com/de_de-12345.html
+         */
+        final File[] domains = directory.listFiles(File::isDirectory);
+        if (domains == null) {
+            throw new IOException("Not a directory: " + directory);
+        }
+
+        for (File domain : domains) {
+            final File[] files = domain.listFiles(f -> f.isFile() && f.getName().endsWith(".html"));
+            if (files == null) {
+                continue;
+            }
+
+            for (File file : files) {
+                final String name = file.getName().substring(0, file.getName().length() - 5);
+                urls.add("https://" + domain.getName() + "/" + name);
+                bodies.add(Files.readAllBytes(file.toPath()));
+            }
+        }
+    }
+
+    public int getPageCount() {
+        return urls.size();
+    }
+
+    public String run(int rounds) {
+        final StringBuilder builder = new StringBuilder();
+
+        // Warm up both paths before measuring
+        runFull(1);
+        runStreaming(1);
+
+        // Compare the results of both paths
+        int mismatches = 0;
+        for (int i = 0; i < urls.size(); i++) {
+            if (!Objects.equals(extractFull(i), extractStreaming(i, null))) {
+                mismatches++;
+            }
+        }
+
+        final long[] full = runFull(rounds);
+        final long[] streaming = runStreaming(rounds);
+
+        final long total = (long) rounds * urls.size();
+        final long bytes = bodies.stream().mapToLong(b -> b.length).sum() * rounds;
+
+        builder.append(String.format("Pages: %d, Rounds: %d, Mismatches: %d\n", urls.size(), rounds, mismatches));
+        builder.append(String.format("Full DOM:  %8.1fµs/page %10s/page, %d%% of body read\n",
+                full[0] / 1000.0 / total, formatBytes(full[1], total), 100));
+        builder.append(String.format("Streaming: %8.1fµs/page %10s/page, %d%% of body read\n",
+                streaming[0] / 1000.0 / total, formatBytes(streaming[1], total), bytes == 0 ? 0 : streaming[2] * 100 / bytes));
+
+        return builder.toString();
+    }
+
+    private long[] runFull(int rounds) {
+        final long allocated = allocatedBytes();
+        final long time = System.nanoTime();
+
+        for (int r = 0; r < rounds; r++) {
+            for (int i = 0; i < urls.size(); i++) {
+                extractFull(i);
+            }
+        }
+
+        return new long[]{System.nanoTime() - time, allocatedBytes() - allocated};
+    }
+
+    private long[] runStreaming(int rounds) {
+        final long[] read = new long[1];
+        final long allocated = allocatedBytes();
+        final long time = System.nanoTime();
+
+        for (int r = 0; r < rounds; r++) {
+            for (int i = 0; i < urls.size(); i++) {
+                extractStreaming(i, read);
+            }
+        }
+
+        return new long[]{System.nanoTime() - time, allocatedBytes() - allocated, read[0]};
+    }
+
+    private Map<Fuel, Float> extractFull(int index) {
+        try {
+            // Same work as 'Jsoup.connect(url).get()' without the network
+            final Document doc = Jsoup.parse(new ByteArrayInputStream(bodies.get(index)), null, urls.get(index));
+            final PriceExtractor extractor = extractors.get(urls.get(index));
+            return PageParser.loadPrices(extractor, PageParser.loadContainer(extractor, doc));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private Map<Fuel, Float> extractStreaming(int index, long[] read) {
+        final String url = urls.get(index);
+        final PriceExtractor extractor = extractors.get(url);
+        final PriceBlockReader reader = extractor != null ? extractor.getBlockReader() : null;
+        if (reader == null) {
+            return null;
+        }
+
+        try (CountingInputStream in = new CountingInputStream(new ByteArrayInputStream(bodies.get(index)))) {
+            final String block = reader.read(in, StandardCharsets.UTF_8);
+            if (read != null) {
+                read[0] += in.count;
+            }
+
+            if (block == null) {
+                return null;
+            }
+
+            final Document doc = Jsoup.parseBodyFragment(block, url);
+            return PageParser.loadPrices(extractor, PageParser.loadContainer(extractor, doc));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private long allocatedBytes() {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        // Allocation counter is only available on HotSpot based VMs
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    private String formatBytes(long bytes, long count) {
+        if (bytes <= 0) {
+            return "n/a";
+        }
+        return String.format("%.1fKB", bytes / 1024.0 / count);
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count = 0;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+    }
+
+}
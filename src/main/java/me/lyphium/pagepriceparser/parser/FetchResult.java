@@ -0,0 +1,40 @@
+package me.lyphium.pagepriceparser.parser;
+
+import lombok.Getter;
+
+@Getter
+public class FetchResult {
+
+    private final String url;
+    private final int statusCode;
+
+    // Cache validators sent by the server
+    private final String etag;
+    private final String lastModified;
+
+    // Complete body of the page, null if only the price block was read
+    private final String charset;
+    private final byte[] body;
+
+    // Price block of the page, null if the complete body was read
+    private final String block;
+
+    public FetchResult(String url, int statusCode, String etag, String lastModified, String charset, byte[] body, String block) {
+        this.url = url;
+        this.statusCode = statusCode;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.charset = charset;
+        this.body = body;
+        this.block = block;
+    }
+
+    public boolean isNotModified() {
+        return statusCode == 304;
+    }
+
+    public boolean hasBlock() {
+        return block != null;
+    }
+
+}
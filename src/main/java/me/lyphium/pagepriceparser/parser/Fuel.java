@@ -3,6 +3,8 @@ package me.lyphium.pagepriceparser.parser;
 import lombok.Getter;
 
 import java.awt.*;
+import java.util.HashMap;
+import java.util.Map;
 
 @Getter
 public enum Fuel {
@@ -29,6 +31,17 @@ public enum Fuel {
             "Shell Autogas (LPG)", "Autogas"
     );
 
+    // Lowercase names of all fuels for a constant lookup
+    private static final Map<String, Fuel> BY_NAME = new HashMap<>();
+
+    static {
+        for (Fuel fuel : values()) {
+            for (String s : fuel.names) {
+                BY_NAME.put(s.toLowerCase(), fuel);
+            }
+        }
+    }
+
     private final short id;
     private final String name;
     private final Color color;
@@ -55,14 +68,7 @@ public enum Fuel {
     }
 
     public static Fuel getByName(String name) {
-        for (Fuel fuel : values()) {
-            for (String s : fuel.names) {
-                if (s.equalsIgnoreCase(name)) {
-                    return fuel;
-                }
-            }
-        }
-        return null;
+        return name != null ? BY_NAME.get(name.toLowerCase()) : null;
     }
 
 }
\ No newline at end of file
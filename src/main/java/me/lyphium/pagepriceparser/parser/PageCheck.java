@@ -0,0 +1,65 @@
+package me.lyphium.pagepriceparser.parser;
+
+import lombok.Getter;
+import me.lyphium.pagepriceparser.parser.extractor.PriceExtractor;
+import org.jsoup.nodes.Element;
+
+import java.util.Map;
+
+@Getter
+public class PageCheck {
+
+    private final PriceData page;
+    private final PageResult result;
+
+    /*
+     *  State of the page after this check, only remembered once the check is accepted:
+     *  validators of the response, fingerprint of the price block or both forgotten for a broken page
+     */
+    private final FetchResult response;
+    private final Long fingerprint;
+    private final boolean forget;
+
+    // Unchanged price block, pages sharing the request without the same fingerprint read their prices from it
+    private final PriceExtractor extractor;
+    private final Element container;
+
+    private PageCheck(PriceData page, PageResult result, FetchResult response, Long fingerprint, boolean forget,
+                      PriceExtractor extractor, Element container) {
+        this.page = page;
+        this.result = result;
+        this.response = response;
+        this.fingerprint = fingerprint;
+        this.forget = forget;
+        this.extractor = extractor;
+        this.container = container;
+    }
+
+    public static PageCheck updated(PriceData page, FetchResult response, long fingerprint) {
+        return new PageCheck(page, PageResult.UPDATED, response, fingerprint, false, null, null);
+    }
+
+    // Fingerprint is the one of the unchanged document, null if it isn't known
+    public static PageCheck unchanged(PriceData page, FetchResult response, Long fingerprint) {
+        return new PageCheck(page, PageResult.UNCHANGED, response, fingerprint, false, null, null);
+    }
+
+    public static PageCheck unchanged(PriceData page, FetchResult response, long fingerprint, PriceExtractor extractor, Element container) {
+        return new PageCheck(page, PageResult.UNCHANGED, response, fingerprint, false, extractor, container);
+    }
+
+    public static PageCheck failed(PriceData page, boolean forget) {
+        return new PageCheck(page, PageResult.FAILED, null, null, forget, null, null);
+    }
+
+    // Same outcome for another page loaded with the same request
+    public PageCheck forPage(PriceData page) {
+        return new PageCheck(page, result, response, fingerprint, forget, extractor, container);
+    }
+
+    // Prices of an unchanged price block, null if the block wasn't read
+    public Map<Fuel, Float> loadPrices() {
+        return container != null ? PageParser.loadPrices(extractor, container) : null;
+    }
+
+}
@@ -0,0 +1,373 @@
+package me.lyphium.pagepriceparser.parser;
+
+import lombok.Getter;
+import me.lyphium.pagepriceparser.utils.Utils;
+import org.jsoup.HttpStatusException;
+import org.jsoup.UnsupportedMimeTypeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+public class PageClient implements PageSource {
+
+    public static final int TIMEOUT = 30 * 1000;
+    public static final int MAX_REDIRECTS = 10;
+    public static final String USER_AGENT = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/118.0.0.0 Safari/537.36";
+
+    private static final Pattern CHARSET_PATTERN = Pattern.compile("(?i)\\bcharset=\\s*\"?([^\\s;\"]*)");
+    private static final Pattern MIME_PATTERN = Pattern.compile("(?i)(text/\\S+|application/(\\w+\\+)?xml)(;.*)?");
+
+    // Traffic of every domain
+    private final Map<String, HostStats> stats = new ConcurrentHashMap<>();
+
+    // Maximum number of decoded body bytes read from a response, the rest is cut off
+    @Getter
+    private final int maxBodySize;
+
+    public PageClient(int maxConnections, int maxBodySize) {
+        this.maxBodySize = Math.max(1, maxBodySize);
+
+        /*
+         *  All requests share the keep-alive cache of the JVM, which only keeps 5 idle connections per host by default.
+         *  Keep enough for every request a domain may run at the same time, unless set by the user.
+         */
+        if (System.getProperty("http.maxConnections") == null) {
+            System.setProperty("http.maxConnections", Integer.toString(Math.max(5, maxConnections)));
+        }
+        System.setProperty("http.keepAlive", "true");
+    }
+
+    @Override
+    public Response execute(String url, Map<String, String> headers) throws IOException {
+        URL current = new URL(url);
+
+        for (int redirects = 0; ; redirects++) {
+            final HostStats host = getStats(current.toString());
+            final HttpURLConnection connection = (HttpURLConnection) current.openConnection();
+
+            connection.setConnectTimeout(TIMEOUT);
+            connection.setReadTimeout(TIMEOUT);
+            connection.setInstanceFollowRedirects(false);
+            connection.setUseCaches(false);
+            connection.setRequestProperty("User-Agent", USER_AGENT);
+            connection.setRequestProperty("Accept-Encoding", "gzip, deflate");
+            for (Entry<String, String> entry : headers.entrySet()) {
+                connection.setRequestProperty(entry.getKey(), entry.getValue());
+            }
+
+            // Connecting is (almost) free if an idle connection to the host is reused
+            final long start = System.nanoTime();
+            connection.connect();
+            host.connected(System.nanoTime() - start);
+
+            final int status = connection.getResponseCode();
+            host.requests.incrementAndGet();
+
+            // Follow redirects manually, so switching from http to https works as well
+            final String location = connection.getHeaderField("Location");
+            if (status >= 300 && status < 400 && status != 304 && location != null) {
+                discard(connection, host);
+                if (redirects >= MAX_REDIRECTS) {
+                    throw new IOException("Too many redirects: " + url);
+                }
+
+                current = new URL(current, location);
+                continue;
+            }
+
+            if (status >= 400) {
+                discard(connection, host);
+                throw new HttpStatusException("HTTP error fetching URL", status, current.toString());
+            }
+
+            final String contentType = connection.getContentType();
+            if (status != 304 && contentType != null && !MIME_PATTERN.matcher(contentType).matches()) {
+                discard(connection, host);
+                throw new UnsupportedMimeTypeException("Unhandled content type", contentType, current.toString());
+            }
+
+            return new Response(current.toString(), connection, host, maxBodySize);
+        }
+    }
+
+    public Map<String, HostStats> getStats() {
+        return new TreeMap<>(stats);
+    }
+
+    private HostStats getStats(String url) {
+        final String domain = Utils.getDomain(url);
+        return stats.computeIfAbsent(domain == null ? "" : domain, d -> new HostStats());
+    }
+
+    private void discard(HttpURLConnection connection, HostStats host) {
+        // Reading the rest of the body returns the connection to the keep-alive cache
+        try (InputStream in = openStream(connection, host)) {
+            final byte[] buffer = new byte[4096];
+            int read;
+            do {
+                read = in.read(buffer);
+            } while (read != -1);
+        } catch (IOException ignored) {
+            // Connection is closed instead
+        }
+    }
+
+    private static InputStream openStream(HttpURLConnection connection, HostStats host) throws IOException {
+        InputStream in;
+        try {
+            in = connection.getInputStream();
+        } catch (IOException e) {
+            in = connection.getErrorStream();
+            if (in == null) {
+                throw e;
+            }
+        }
+
+        // Bytes are counted before decompression, so they are the bytes on the wire
+        in = new CountingInputStream(in, host.wireBytes);
+
+        // Responses without a body have nothing to decompress
+        final int status = connection.getResponseCode();
+        if (status == 204 || status == 304 || connection.getContentLengthLong() == 0) {
+            return new CountingInputStream(in, host.bodyBytes);
+        }
+
+        final String encoding = connection.getContentEncoding();
+        if ("gzip".equalsIgnoreCase(encoding) || "x-gzip".equalsIgnoreCase(encoding)) {
+            in = new GZIPInputStream(in);
+        } else if ("deflate".equalsIgnoreCase(encoding)) {
+            in = new InflaterInputStream(in);
+        }
+
+        return new CountingInputStream(in, host.bodyBytes);
+    }
+
+    public static class Response implements PageResponse {
+
+        @Getter
+        private final String url;
+        @Getter
+        private final int statusCode;
+        @Getter
+        private final String charset;
+
+        private final HttpURLConnection connection;
+        private final HostStats host;
+        private final int maxBodySize;
+        private InputStream body;
+
+        // Body was larger than the maximum size and was cut off
+        @Getter
+        private boolean truncated = false;
+
+        private Response(String url, HttpURLConnection connection, HostStats host, int maxBodySize) throws IOException {
+            this.url = url;
+            this.statusCode = connection.getResponseCode();
+            this.connection = connection;
+            this.host = host;
+            this.maxBodySize = maxBodySize;
+
+            final String contentType = connection.getContentType();
+            final Matcher matcher = contentType != null ? CHARSET_PATTERN.matcher(contentType) : null;
+            this.charset = matcher != null && matcher.find() && !matcher.group(1).isEmpty() ? matcher.group(1) : null;
+        }
+
+        @Override
+        public String header(String name) {
+            return connection.getHeaderField(name);
+        }
+
+        @Override
+        public InputStream bodyStream() throws IOException {
+            if (body == null) {
+                body = new LimitedInputStream(openStream(connection, host));
+            }
+            return body;
+        }
+
+        @Override
+        public byte[] bodyAsBytes() throws IOException {
+            final InputStream in = bodyStream();
+            final int length = connection.getContentLength();
+
+            // Read straight into the result, sized by the announced length but never beyond the maximum size.
+            // Decoded gzip bodies are longer than announced and grow the buffer, still up to the maximum size only
+            byte[] data = new byte[length > 0 ? Math.min(length, maxBodySize) : 8192];
+            int size = 0;
+            while (true) {
+                if (size == data.length) {
+                    // Buffer is full -> only grow if there is more, a correct length is returned without a copy
+                    final int b = in.read();
+                    if (b < 0) {
+                        break;
+                    }
+                    data = Arrays.copyOf(data, (int) Math.min(maxBodySize, data.length * 2L));
+                    data[size++] = (byte) b;
+                }
+
+                final int read = in.read(data, size, data.length - size);
+                if (read < 0) {
+                    break;
+                }
+                size += read;
+            }
+            return size == data.length ? data : Arrays.copyOf(data, size);
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Closing the stream instead of disconnecting keeps the connection alive
+            bodyStream().close();
+        }
+
+        private class LimitedInputStream extends FilterInputStream {
+
+            private long remaining = maxBodySize;
+
+            private LimitedInputStream(InputStream in) {
+                super(in);
+            }
+
+            @Override
+            public int read() throws IOException {
+                if (remaining <= 0) {
+                    return limitReached();
+                }
+
+                final int b = super.read();
+                if (b >= 0) {
+                    remaining--;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (remaining <= 0) {
+                    return limitReached();
+                }
+
+                final int n = super.read(b, off, (int) Math.min(len, remaining));
+                if (n > 0) {
+                    remaining -= n;
+                }
+                return n;
+            }
+
+            private int limitReached() throws IOException {
+                // Only a body with more data than allowed is oversized, not one of exactly the maximum size
+                if (!truncated && super.read() >= 0) {
+                    truncated = true;
+                    host.oversized.incrementAndGet();
+                }
+                return -1;
+            }
+
+            @Override
+            public void close() throws IOException {
+                // Large rests aren't drained, so the connection is closed instead of being reused
+                if (truncated) {
+                    connection.disconnect();
+                }
+                super.close();
+            }
+
+        }
+
+    }
+
+    public static class HostStats {
+
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong wireBytes = new AtomicLong();
+        private final AtomicLong bodyBytes = new AtomicLong();
+        private final AtomicLong connects = new AtomicLong();
+        private final AtomicLong connectTime = new AtomicLong();
+        private final AtomicLong maxConnectTime = new AtomicLong();
+        private final AtomicLong oversized = new AtomicLong();
+
+        public long getRequests() {
+            return requests.get();
+        }
+
+        public long getWireBytes() {
+            return wireBytes.get();
+        }
+
+        public long getBodyBytes() {
+            return bodyBytes.get();
+        }
+
+        public long getAverageConnectTime() {
+            final long count = connects.get();
+            return count == 0 ? 0 : connectTime.get() / count;
+        }
+
+        public long getMaxConnectTime() {
+            return maxConnectTime.get();
+        }
+
+        public long getOversized() {
+            return oversized.get();
+        }
+
+        private void connected(long nanos) {
+            connects.incrementAndGet();
+            connectTime.addAndGet(nanos);
+            maxConnectTime.accumulateAndGet(nanos, Math::max);
+        }
+
+        @Override
+        public String toString() {
+            final long wire = getWireBytes();
+            final long body = getBodyBytes();
+            return String.format("%d requests, %.1fKB on the wire (%d%% of %.1fKB), connect %.1fms avg, %.1fms max, %d oversized",
+                    getRequests(), wire / 1024.0, body == 0 ? 100 : wire * 100 / body, body / 1024.0,
+                    getAverageConnectTime() / 1e6, getMaxConnectTime() / 1e6, getOversized());
+        }
+
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        private final AtomicLong count;
+
+        private CountingInputStream(InputStream in, AtomicLong count) {
+            super(in);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b >= 0) {
+                count.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int n = super.read(b, off, len);
+            if (n > 0) {
+                count.addAndGet(n);
+            }
+            return n;
+        }
+
+    }
+
+}
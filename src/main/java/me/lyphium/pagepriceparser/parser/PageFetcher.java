@@ -0,0 +1,344 @@
+package me.lyphium.pagepriceparser.parser;
+
+import lombok.Getter;
+import me.lyphium.pagepriceparser.parser.CircuitBreaker.Permit;
+import me.lyphium.pagepriceparser.utils.SimulatedClock;
+import me.lyphium.pagepriceparser.utils.Utils;
+import org.jsoup.HttpStatusException;
+import org.jsoup.UnsupportedMimeTypeException;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+public class PageFetcher {
+
+    @Getter
+    private final int domainLimit;
+
+    private final ParserSettings settings;
+    private final Executor executor;
+
+    // One client for all requests, so connections to a host are kept alive and reused
+    @Getter
+    private final PageClient client;
+
+    // Source of the pages: the network, recorded pages, the network while recording or simulated stations
+    @Getter
+    private final PageSource source;
+    private final Map<String, DomainQueue> domains = new ConcurrentHashMap<>();
+    // Validators of every page by its id, pages with the same url keep their own
+    private final Map<Integer, Validators> validators = new ConcurrentHashMap<>();
+
+    // Reader for the price block of an url, null if the complete body should be read
+    private final Function<String, PriceBlockReader> blockReaders;
+
+    // Delays retries without blocking a fetch thread
+    private final ScheduledExecutorService retryService = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread thread = new Thread(r, "PageFetcher-Retry");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PageFetcher(ParserSettings settings, Executor executor, Function<String, PriceBlockReader> blockReaders) {
+        this.domainLimit = Math.max(1, settings.getDomainLimit());
+        this.settings = settings;
+        this.executor = executor;
+        this.blockReaders = blockReaders;
+        this.client = new PageClient(domainLimit, settings.getMaxBodySize());
+
+        // Simulated time can't be used against real hosts, the stations are generated for the time of the clock
+        if (Utils.getClock() instanceof SimulatedClock) {
+            this.source = new SimulatedSource();
+        } else if (settings.getReplayDirectory() != null) {
+            this.source = new ReplaySource(settings.getReplayDirectory(), settings.getMaxBodySize(),
+                    settings.getReplayLatency(), settings.getReplayErrorRate());
+        } else if (settings.getRecordDirectory() != null) {
+            this.source = new RecordingSource(client, settings.getRecordDirectory());
+        } else {
+            this.source = client;
+        }
+    }
+
+    public PageFetcher(ParserSettings settings, Executor executor) {
+        this(settings, executor, url -> null);
+    }
+
+    public CompletableFuture<FetchResult> fetch(PriceData page) {
+        return fetch(page.getUrl(), validators.get(page.getId()), true);
+    }
+
+    // Pages fetched with 'blocks' set to false are always read completely, e.g. list pages
+    public CompletableFuture<FetchResult> fetch(String url, boolean blocks) {
+        return fetch(url, null, blocks);
+    }
+
+    private CompletableFuture<FetchResult> fetch(String url, Validators known, boolean blocks) {
+        final CompletableFuture<FetchResult> future = new CompletableFuture<>();
+
+        // Requests are queued per domain and started as soon as a slot of this domain is free
+        final String domain = Utils.getDomain(url);
+        final DomainQueue queue = domains.computeIfAbsent(domain == null ? "" : domain, DomainQueue::new);
+
+        // Host is down -> fail without sending a request
+        final Permit permit = queue.breaker.acquire();
+        if (permit == Permit.DENIED) {
+            future.complete(null);
+            return future;
+        }
+
+        queue.submit(new FetchTask(url, known, blocks, future, queue, permit));
+
+        return future;
+    }
+
+    public Map<String, CircuitBreaker> getBreakers() {
+        final Map<String, CircuitBreaker> breakers = new TreeMap<>();
+        for (DomainQueue queue : domains.values()) {
+            breakers.put(queue.domain, queue.breaker);
+        }
+        return breakers;
+    }
+
+    public void remember(int page, FetchResult res) {
+        final String etag = res.getEtag();
+        final String lastModified = res.getLastModified();
+
+        // Only pages with validators can be requested conditionally
+        if (etag == null && lastModified == null) {
+            validators.remove(page);
+        } else {
+            validators.put(page, new Validators(etag, lastModified));
+        }
+    }
+
+    public void forget(int page) {
+        validators.remove(page);
+    }
+
+    public void shutdown() {
+        retryService.shutdownNow();
+        domains.clear();
+    }
+
+    private FetchResult loadPage(String url, Validators known, boolean blocks) throws IOException {
+        final Map<String, String> headers = new HashMap<>();
+
+        // Ask the server to answer with '304 Not Modified' if the page didn't change since the last check
+        if (known != null) {
+            if (known.etag != null) {
+                headers.put("If-None-Match", known.etag);
+            }
+            if (known.lastModified != null) {
+                headers.put("If-Modified-Since", known.lastModified);
+            }
+        }
+
+        try (PageResponse res = source.execute(url, headers)) {
+            final String finalUrl = res.getUrl();
+            final String etag = res.header("ETag");
+            final String lastModified = res.header("Last-Modified");
+
+            // Streaming mode: Only read the body until the price block was found and closed
+            final PriceBlockReader reader = blocks && res.getStatusCode() == 200 ? blockReaders.apply(finalUrl) : null;
+            if (reader != null) {
+                final Charset charset = res.getCharset() != null && Charset.isSupported(res.getCharset())
+                        ? Charset.forName(res.getCharset()) : StandardCharsets.UTF_8;
+
+                final String block = reader.read(res.bodyStream(), charset);
+                if (block != null) {
+                    return new FetchResult(finalUrl, res.getStatusCode(), etag, lastModified, res.getCharset(), null, block);
+                }
+
+                System.err.println((res.isTruncated() ? "Price block not within the maximum size: " : "No price block found: ") + finalUrl);
+                return null;
+            }
+
+            // Load HTML-Page, the body is read completely here so parsing never waits on the network.
+            // Oversized pages are cut off, the prices might still be in the part which was read
+            final byte[] body = res.bodyAsBytes();
+            if (res.isTruncated()) {
+                System.err.println("Page truncated to " + (body.length / 1024) + "KB: " + finalUrl);
+            }
+            return new FetchResult(finalUrl, res.getStatusCode(), etag, lastModified, res.getCharset(), body, null);
+        }
+    }
+
+    private static class Validators {
+
+        private final String etag;
+        private final String lastModified;
+
+        private Validators(String etag, String lastModified) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+
+    }
+
+    private boolean isHostFailure(IOException e) {
+        // Host answered, the page itself is wrong
+        if (e instanceof UnsupportedMimeTypeException) {
+            return false;
+        }
+
+        // Server errors and rate limits are caused by the host, other status codes by the page
+        if (e instanceof HttpStatusException) {
+            final int status = ((HttpStatusException) e).getStatusCode();
+            return status >= 500 || status == 429;
+        }
+
+        // Timeouts, refused connections, etc.
+        return true;
+    }
+
+    private long retryDelay(int attempt) {
+        // Exponential backoff with jitter, so retries of many pages don't hit the host at the same time
+        final long delay = settings.getRetryDelay() << Math.min(attempt, 16);
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    private class FetchTask implements Runnable {
+
+        private final String url;
+        private final Validators known;
+        private final boolean blocks;
+        private final CompletableFuture<FetchResult> future;
+        private final DomainQueue queue;
+        private final Permit permit;
+
+        private int attempt = 0;
+
+        private FetchTask(String url, Validators known, boolean blocks, CompletableFuture<FetchResult> future, DomainQueue queue,
+                          Permit permit) {
+            this.url = url;
+            this.known = known;
+            this.blocks = blocks;
+            this.future = future;
+            this.queue = queue;
+            this.permit = permit;
+        }
+
+        @Override
+        public void run() {
+            // Request was cancelled while waiting, e.g. its update cycle ran out of time
+            if (future.isDone()) {
+                queue.breaker.release(permit);
+                return;
+            }
+
+            // Circuit opened while waiting in the queue -> fail fast, only the probe may pass
+            if (permit == Permit.NORMAL && !queue.breaker.isClosed()) {
+                future.complete(null);
+                return;
+            }
+
+            try {
+                final FetchResult result = loadPage(url, known, blocks);
+                queue.breaker.success();
+                future.complete(result);
+            } catch (IOException e) {
+                if (!isHostFailure(e)) {
+                    queue.breaker.success();
+                    System.err.println("Couldn't load page: " + url + " (" + e.getMessage() + ")");
+                    future.complete(null);
+                    return;
+                }
+
+                queue.breaker.failure();
+
+                // Retry later as long as the host isn't considered down
+                if (attempt < settings.getRetries() && queue.breaker.isClosed() && !future.isDone()) {
+                    final long delay = retryDelay(attempt++);
+                    try {
+                        retryService.schedule(() -> queue.submit(this), delay, TimeUnit.MILLISECONDS);
+                        return;
+                    } catch (RejectedExecutionException ignored) {
+                        // Fetcher was shut down
+                    }
+                }
+
+                System.err.println("Couldn't load page: " + url + " (" + e + ")");
+                future.complete(null);
+            } catch (Throwable t) {
+                queue.breaker.release(permit);
+                future.completeExceptionally(t);
+            }
+        }
+
+    }
+
+    private class DomainQueue {
+
+        private final String domain;
+        private final CircuitBreaker breaker;
+
+        private final Queue<FetchTask> pending = new ArrayDeque<>();
+        private int active = 0;
+
+        private DomainQueue(String domain) {
+            this.domain = domain;
+            this.breaker = new CircuitBreaker(settings.getBreakerThreshold(), settings.getBreakerTime());
+        }
+
+        private void submit(FetchTask task) {
+            synchronized (this) {
+                // Domain is saturated -> wait for a running request to finish
+                if (active >= domainLimit) {
+                    pending.add(task);
+                    return;
+                }
+                active++;
+            }
+
+            start(task);
+        }
+
+        private void start(FetchTask task) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        finished();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Fetcher was shut down or its queue is full, the request can't be started
+                final FetchTask[] dropped;
+                synchronized (this) {
+                    active--;
+                    dropped = pending.toArray(new FetchTask[0]);
+                    pending.clear();
+                }
+
+                // Requests were never sent -> give a probe back to the breaker
+                breaker.release(task.permit);
+                task.future.completeExceptionally(e);
+                for (FetchTask t : dropped) {
+                    breaker.release(t.permit);
+                    t.future.completeExceptionally(e);
+                }
+            }
+        }
+
+        private void finished() {
+            final FetchTask next;
+            synchronized (this) {
+                next = pending.poll();
+                if (next == null) {
+                    active--;
+                    return;
+                }
+            }
+
+            // Slot is handed over directly to the next waiting request
+            start(next);
+        }
+
+    }
+
+}
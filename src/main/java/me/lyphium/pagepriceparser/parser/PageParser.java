@@ -3,36 +3,132 @@ package me.lyphium.pagepriceparser.parser;
 import lombok.Getter;
 import me.lyphium.pagepriceparser.Bot;
 import me.lyphium.pagepriceparser.database.DatabaseConnection;
+import me.lyphium.pagepriceparser.parser.extractor.ExtractorRegistry;
+import me.lyphium.pagepriceparser.parser.extractor.PriceExtractor;
 import me.lyphium.pagepriceparser.utils.PriceMap;
 import me.lyphium.pagepriceparser.utils.Utils;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 public class PageParser {
 
     public static final long DEFAULT_PERIOD = 60 * 60 * 1000;
 
+    // Minimum number of pages on the same list page to load them from the list instead of their detail pages
+    public static final int MIN_LIST_PAGES = 2;
+
     @Getter
     private final long period;
     @Getter
     private final long startTime;
 
+    @Getter
+    private final ParserSettings settings;
+
+    // I/O-bound page requests and CPU-bound HTML parsing run on separate pools
+    @Getter
+    private final WorkerPool fetchPool;
+    @Getter
+    private final WorkerPool parsePool;
+
+    // Extractors reading the prices of each domain
+    @Getter
+    private final ExtractorRegistry extractors = new ExtractorRegistry();
+
+    // Intervals of every page, only used in adaptive mode
+    @Getter
+    private final PageSchedule schedule;
+
+    // Periods per time of day and weekday, null if the period is constant
+    @Getter
+    private final PollingCalendar calendar;
+
+    // Deadline ordered queue of all pages, only used in queue mode
+    @Getter
+    private final PageQueue queue;
+
+    // Every cycle runs on the single thread of the service, so cycles never overlap
     private final ScheduledExecutorService service = Executors.newScheduledThreadPool(1);
+    private final Object cycleLock = new Object();
+    private UpdateCycle runningCycle;
+    private UpdateCycle pendingCycle;
+    private int nextSlot = 0;
+    private final PageFetcher fetcher;
+
+    // Hash of the price block of every page by its id, pages with the same url keep their own
+    private final Map<Integer, Long> fingerprints = new ConcurrentHashMap<>();
 
-    public PageParser(long period, long startTime) {
+    // Normalized urls mapped to the normalized url they redirected to on their last check
+    private final Map<String, String> redirects = new ConcurrentHashMap<>();
+
+    public PageParser(long period, long startTime, ParserSettings settings) {
         this.period = period;
         this.startTime = startTime;
+        this.settings = settings;
+
+        this.schedule = settings.isAdaptive() ? new PageSchedule(period, settings) : null;
+        this.calendar = loadCalendar(settings.getCalendar(), period > 0 ? period : DEFAULT_PERIOD);
+        this.queue = settings.isQueued() ? new PageQueue(this, period, settings) : null;
+
+        this.fetchPool = new WorkerPool("PageFetcher", settings.getFetchThreads(), settings.getFetchQueueLimit());
+        this.parsePool = new WorkerPool("PageParser", settings.getParseThreads(), settings.getParseQueueLimit());
+
+        // A full parse queue slows down the fetch threads instead of dropping already loaded pages
+        parsePool.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+
+        // Built-in extractors and extractors from the classpath or the extractor directory
+        extractors.registerDefaults();
+        extractors.loadServices(getClass().getClassLoader());
+        final int external = extractors.loadDirectory(ExtractorRegistry.EXTRACTOR_DIRECTORY);
+        if (external > 0) {
+            System.out.println("Loaded " + external + " external extractors");
+        }
+        settings.getAliases().forEach(extractors::alias);
+
+        if (settings.isStreaming()) {
+            this.fetcher = new PageFetcher(settings, fetchPool, url -> {
+                final PriceExtractor extractor = extractors.get(url);
+                return extractor != null ? extractor.getBlockReader() : null;
+            });
+        } else {
+            this.fetcher = new PageFetcher(settings, fetchPool);
+        }
+
+        // Simulated stations look like clever-tanken.de
+        if (fetcher.getSource() instanceof SimulatedSource) {
+            extractors.alias(SimulatedSource.URL, "clever-tanken.de");
+        } else if (settings.getReplayDirectory() != null) {
+            System.out.println("Replaying recorded pages from " + settings.getReplayDirectory());
+        } else if (settings.getRecordDirectory() != null) {
+            System.out.println("Recording pages to " + settings.getRecordDirectory());
+        }
     }
 
     public void start() {
@@ -49,90 +145,511 @@ public class PageParser {
         }
 
         final long startDelay;
-        if (startTime > System.currentTimeMillis()) {
+        if (startTime > Utils.currentTime()) {
             System.out.println("First Check: " + Utils.toString(new Date(startTime)));
-            startDelay = startTime - System.currentTimeMillis();
+            startDelay = startTime - Utils.currentTime();
         } else {
             startDelay = 0;
         }
 
+        // Queue: Every page waits for its own due time, free workers always take the most overdue page
+        if (queue != null) {
+            System.out.println("Checking up to " + queue.getWorkerCount() + " pages at the same time");
+            if (schedule != null) {
+                System.out.println("Adapting intervals between " + (settings.getMinInterval() / 1000) + "sec and "
+                        + (settings.getMaxInterval() / 1000) + "sec");
+            }
+
+            if (schedule != null && calendar != null) {
+                System.err.println("Calendar is ignored, adaptive intervals replace the periods of the calendar");
+            }
+
+            queue.start(startTime);
+            return;
+        }
+
+        // Adaptive: Every page has its own interval, the tick only looks for pages which are due
+        if (schedule != null) {
+            final long tick = getAdaptiveTick();
+            System.out.println("Adapting intervals between " + (settings.getMinInterval() / 1000) + "sec and "
+                    + (settings.getMaxInterval() / 1000) + "sec");
+            if (calendar != null) {
+                System.err.println("Calendar is ignored, adaptive intervals replace the periods of the calendar");
+            }
+
+            service.scheduleAtFixedRate(
+                    this::updateDue,
+                    startDelay,
+                    tick,
+                    TimeUnit.MILLISECONDS
+            );
+            return;
+        }
+
+        // Staggered: Every tick checks the pages of one slot, so each page is still checked once per period
+        if (settings.isStaggered()) {
+            final int slots = settings.getSlots();
+            final long tick = Math.max(1, period / slots);
+            System.out.println("Spreading checks over " + slots + " slots");
+
+            // Calendar: Every slot plans the next one with the period of its time of day
+            if (calendar != null) {
+                System.out.println("Checking Pages by calendar:\n" + calendar);
+                scheduleSlot(startDelay);
+                return;
+            }
+
+            service.scheduleAtFixedRate(
+                    this::updateSlot,
+                    startDelay,
+                    tick,
+                    TimeUnit.MILLISECONDS
+            );
+            return;
+        }
+
+        // Calendar: Every cycle plans the next one with the period of its time of day
+        if (calendar != null) {
+            System.out.println("Checking Pages by calendar:\n" + calendar);
+            scheduleCalendar(startDelay);
+            return;
+        }
+
+        // Full cycles are started like manual updates, so both never run twice at the same time
         service.scheduleAtFixedRate(
-                this::update,
+                this::trigger,
                 startDelay,
                 period,
                 TimeUnit.MILLISECONDS
         );
     }
 
-    public synchronized void update() {
-        long time = System.currentTimeMillis();
+    // Simulation: Runs everything due at the time of the clock on the calling thread and returns the time of the next run
+    public long runDue() {
+        final long now = Utils.currentTime();
+
+        if (queue != null) {
+            return queue.runDue(now);
+        }
+
+        if (schedule != null) {
+            updateDue();
+            return now + getAdaptiveTick();
+        }
+
+        if (settings.isStaggered()) {
+            updateSlot();
+            return now + getSlotTick(now);
+        }
+
+        final long tick = period > 0 ? period : DEFAULT_PERIOD;
+        update(new UpdateCycle("Prices", null, tick));
+        return calendar != null ? calendar.next(now) : now + tick;
+    }
+
+    public PageSource getSource() {
+        return fetcher.getSource();
+    }
+
+    private void scheduleCalendar(long delay) {
+        try {
+            service.schedule(() -> {
+                trigger();
+
+                final long now = Utils.currentTime();
+                scheduleCalendar(calendar.next(now) - now);
+            }, Math.max(0, delay), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ignored) {
+            // Parser was shut down
+        }
+    }
 
+    private void scheduleSlot(long delay) {
         try {
+            service.schedule(() -> {
+                updateSlot();
+                scheduleSlot(getSlotTick(Utils.currentTime()));
+            }, Math.max(0, delay), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ignored) {
+            // Parser was shut down
+        }
+    }
+
+    private static PollingCalendar loadCalendar(String definition, long period) {
+        if (definition == null) {
+            return null;
+        }
+
+        try {
+            return PollingCalendar.parse(definition, period);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid calendar, using the normal period: " + e.getMessage());
+            return null;
+        }
+    }
+
+    public CompletableFuture<UpdateCycle> trigger() {
+        // Queue: Every page is due right now, so the workers check them next instead of a second cycle next to the queue
+        if (queue != null) {
+            return queue.checkAll().getFuture();
+        }
+
+        synchronized (cycleLock) {
+            // A full cycle is already running or waiting to run -> join it instead of loading every page twice
+            if (runningCycle != null && runningCycle.isFull()) {
+                return runningCycle.getFuture();
+            }
+            if (pendingCycle != null) {
+                return pendingCycle.getFuture();
+            }
+
+            final UpdateCycle cycle = new UpdateCycle("Prices", null, period > 0 ? period : DEFAULT_PERIOD);
+            try {
+                service.execute(() -> update(cycle));
+            } catch (RejectedExecutionException e) {
+                cycle.getFuture().completeExceptionally(e);
+                return cycle.getFuture();
+            }
+
+            pendingCycle = cycle;
+            return cycle.getFuture();
+        }
+    }
+
+    public void update() {
+        trigger().join();
+    }
+
+    public UpdateCycle getRunningCycle() {
+        if (queue != null) {
+            return queue.getRunningCycle();
+        }
+
+        synchronized (cycleLock) {
+            // Full cycles first, these are the ones manual updates join
+            if (runningCycle != null && runningCycle.isFull()) {
+                return runningCycle;
+            }
+            return pendingCycle != null ? pendingCycle : runningCycle;
+        }
+    }
+
+    private void updateSlot() {
+        final int slots = settings.getSlots();
+        final int slot = nextSlot;
+        nextSlot = (nextSlot + 1) % slots;
+
+        update(new UpdateCycle("Prices of slot " + (slot + 1) + "/" + slots, page -> slotOf(page, slots) == slot,
+                getSlotTick(Utils.currentTime())));
+    }
+
+    private long getSlotTick(long now) {
+        // Every page is still checked once per period of the time of day
+        final long period = calendar != null ? calendar.next(now) - now : this.period;
+        return Math.max(1, period / settings.getSlots());
+    }
+
+    private void updateDue() {
+        final long now = Utils.currentTime();
+        update(new UpdateCycle("due Prices", page -> schedule.isDue(page, now), getAdaptiveTick()));
+    }
+
+    private long getAdaptiveTick() {
+        return Math.max(1000, Math.min(60 * 1000, settings.getMinInterval() / 4));
+    }
+
+    private int slotOf(PriceData page, int slots) {
+        return (int) offset(page, slots);
+    }
+
+    static long offset(PriceData page, long range) {
+        // Mix the id, so consecutive ids don't end up next to each other
+        final int hash = page.getId() * 0x9E3779B9;
+        return Math.floorMod((long) (hash ^ (hash >>> 16)), Math.max(1, range));
+    }
+
+    private void update(UpdateCycle cycle) {
+        // Prices are stored with the time of the clock, budget and duration of the cycle are always real time
+        final long time = Utils.currentTime();
+        final long start = System.currentTimeMillis();
+
+        synchronized (cycleLock) {
+            if (pendingCycle == cycle) {
+                pendingCycle = null;
+            }
+            runningCycle = cycle;
+        }
+        cycle.start(start);
+
+        // Cycle should be done when the next one starts, stragglers are cancelled when the budget runs out
+        final long budget = settings.getCycleBudget() > 0 ? settings.getCycleBudget() : cycle.getTick();
+        final long nextTick = start + cycle.getTick();
+        final long deadline = start + budget;
+
+        try {
+            final DatabaseConnection database = Bot.getInstance().getDatabase();
+
             // Checking if the connection to the database is available, otherwise don't update prices
-            if (!Bot.getInstance().getDatabase().isConnected()) {
+            if (!database.isConnected()) {
                 System.err.println("Can't update database! No connection available");
                 return;
             }
 
-            System.out.println("Updating Prices...");
+            // All available pages or only the pages selected by the scheduler
+            final List<PriceData> pages = database.getPages();
+
+            // History of new pages is loaded at once, before the scheduler looks at every single page
+            if (schedule != null) {
+                schedule.preload(pages, time);
+            }
+
+            if (!cycle.isFull()) {
+                pages.removeIf(cycle.getFilter().negate());
+
+                // Nothing due right now
+                if (pages.isEmpty()) {
+                    return;
+                }
+            }
+
+            System.out.println("Updating " + cycle.getName() + "...");
+            cycle.setTotal(pages.size());
 
             // Update prices
-            handleUpdate();
+            final Map<PriceData, Long> finished = new HashMap<>();
+            final List<PageCheck> accepted = new ArrayList<>();
+            final Map<PriceData, PageResult> results = handleUpdate(pages, time, deadline, finished, accepted, cycle);
+
+            // Feed the results back to the scheduler
+            if (schedule != null) {
+                for (Entry<PriceData, PageResult> entry : results.entrySet()) {
+                    schedule.record(entry.getKey(), entry.getValue(), time);
+                }
+            }
 
-            time = System.currentTimeMillis() - time;
-            System.out.println("Finished: Updated the Prices (" + time + "ms)");
+            // Save prices in database, cancelled pages have no new prices and are saved unchanged.
+            // Validators and fingerprints only advance with saved prices, otherwise the next cycle loads the prices again
+            if (database.savePriceData(pages)) {
+                accepted.forEach(this::commit);
+            } else {
+                System.err.println("Couldn't save prices, loading them again next cycle");
+            }
+
+            // Simulated cycles follow each other without a pause, collecting after each one would only slow them down
+            if (cycle.isFull() && !(fetcher.getSource() instanceof SimulatedSource)) {
+                System.gc();
+            }
+
+            final Map<PageResult, Integer> counts = new EnumMap<>(PageResult.class);
+            for (PageResult result : results.values()) {
+                counts.merge(result, 1, Integer::sum);
+            }
+
+            // Completed pages which only finished after the next cycle should have started
+            final long late = finished.values().stream().filter(t -> t > nextTick).count();
+            final int cancelled = counts.getOrDefault(PageResult.CANCELLED, 0);
+            cycle.finish(counts, late);
+
+            final long duration = System.currentTimeMillis() - start;
+            System.out.println("Finished: Updated the " + cycle.getName() + " (" + duration + "ms, "
+                    + counts.getOrDefault(PageResult.UPDATED, 0) + " updated, "
+                    + counts.getOrDefault(PageResult.UNCHANGED, 0) + " unchanged, "
+                    + counts.getOrDefault(PageResult.FAILED, 0) + " failed)");
+            System.out.println("Cycle: " + (results.size() - cancelled) + " completed, " + late + " late, "
+                    + cancelled + " cancelled (budget " + budget + "ms)");
         } catch (Exception e) {
             e.printStackTrace();
+        } finally {
+            synchronized (cycleLock) {
+                runningCycle = null;
+            }
+            cycle.getFuture().complete(cycle);
         }
     }
 
-    private synchronized void handleUpdate() {
-        final DatabaseConnection database = Bot.getInstance().getDatabase();
+    private Map<PriceData, PageResult> handleUpdate(List<PriceData> pages, long time, long deadline, Map<PriceData, Long> finished,
+                                                    List<PageCheck> accepted, UpdateCycle cycle) {
+        final Map<PriceData, PageResult> results = new LinkedHashMap<>();
 
-        // Checking if the connection to the database is available
-        if (!database.isConnected()) {
-            System.err.println("Can't update database! No connection available");
-            return;
+        // Nothing to update if no pages are available
+        if (pages.isEmpty()) {
+            return results;
         }
 
-        // All available pages
-        final List<PriceData> pages = database.getPages();
-        final long time = System.currentTimeMillis();
+        // Start all requests at once, the fetcher limits how many run against the same domain.
+        // Prices are loaded into copies, so a straggler can't change a page after the cycle is committed
+        final List<PriceData> copies = new ArrayList<>(pages.size());
+        for (PriceData page : pages) {
+            copies.add(new PriceData(page.getId(), page.getName(), page.getUrl(), page.getAddress(), page.getColor()));
+        }
 
-        // Nothing to update if no pages are available
-        if (pages.isEmpty()) {
-            return;
+        final List<CompletableFuture<PageCheck>> futures = startUpdates(copies, time);
+        final AtomicLongArray times = new AtomicLongArray(pages.size());
+        for (int i = 0; i < pages.size(); i++) {
+            final int index = i;
+            futures.get(i).thenRun(() -> {
+                times.set(index, System.currentTimeMillis());
+                cycle.pageCompleted();
+            });
+        }
+
+        // Wait until every page is either loaded or failed, but not longer than the budget
+        final CompletableFuture<?>[] all = futures.toArray(new CompletableFuture<?>[0]);
+        try {
+            CompletableFuture.allOf(all)
+                    .get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException ignored) {
+            // Stragglers are cancelled below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
 
-        pages.parallelStream().forEach(page -> {
-            // Load HTML-Page
-            final Document doc = loadPage(page.getUrl());
+        for (int i = 0; i < pages.size(); i++) {
+            final CompletableFuture<PageCheck> future = futures.get(i);
 
-            // Load Prices from page
-            final Map<Fuel, Float> prices = loadPrices(doc);
+            // Page didn't finish in time -> stop its request and keep its old prices, validators and fingerprint
+            future.cancel(false);
+            if (future.isCancelled()) {
+                results.put(pages.get(i), PageResult.CANCELLED);
+                continue;
+            }
 
-            // Check if prices exists (HTML-Page correct and prices exist)
-            if (prices == null) {
-                System.err.println("Couldn't update prices for: " + page.getName());
-                return;
+            final PageCheck check = future.join();
+            if (check.getResult() == PageResult.UPDATED) {
+                pages.get(i).getPrices().putAll(copies.get(i).getPrices());
             }
+            accepted.add(check);
+
+            results.put(pages.get(i), check.getResult());
+            finished.put(pages.get(i), times.get(i) > 0 ? times.get(i) : System.currentTimeMillis());
+        }
+
+        return results;
+    }
 
-            // Apply prices to PriceData Object
-            for (Entry<Fuel, Float> entry : prices.entrySet()) {
-                page.getPrices().put(
-                        entry.getKey(),
-                        new PriceMap(new long[]{time}, new float[]{entry.getValue()})
-                );
+    private List<CompletableFuture<PageCheck>> startUpdates(List<PriceData> pages, long time) {
+        final List<CompletableFuture<PageCheck>> futures = new ArrayList<>(Collections.nCopies(pages.size(), null));
+
+        // List mode: Pages sharing a list page are loaded with a single request
+        if (settings.isLists()) {
+            final Map<String, List<Integer>> groups = new LinkedHashMap<>();
+            for (int i = 0; i < pages.size(); i++) {
+                final PriceExtractor extractor = extractors.get(pages.get(i).getUrl());
+                final String listUrl = extractor != null ? extractor.getListUrl(pages.get(i)) : null;
+                if (listUrl != null) {
+                    groups.computeIfAbsent(listUrl, url -> new ArrayList<>()).add(i);
+                }
             }
+
+            int lists = 0, listed = 0;
+            for (Entry<String, List<Integer>> group : groups.entrySet()) {
+                // A single page is cheaper to load from its detail page
+                if (group.getValue().size() < MIN_LIST_PAGES) {
+                    continue;
+                }
+
+                final CompletableFuture<Map<String, Map<Fuel, Float>>> list = loadList(group.getKey());
+                for (int index : group.getValue()) {
+                    futures.set(index, updateFromList(pages.get(index), list, time));
+                }
+
+                lists++;
+                listed += group.getValue().size();
+            }
+
+            if (lists > 0) {
+                System.out.println("Loading " + listed + " pages from " + lists + " list pages");
+            }
+        }
+
+        // Every other page is loaded from its detail page, pages with the same document share one request
+        final Map<String, CompletableFuture<PageCheck>> loading = new HashMap<>();
+        final Map<String, PriceData> leaders = new HashMap<>();
+        int shared = 0;
+        for (int i = 0; i < pages.size(); i++) {
+            if (futures.get(i) != null) {
+                continue;
+            }
+
+            final PriceData page = pages.get(i);
+            final String key = resolveUrl(page.getUrl());
+            final CompletableFuture<PageCheck> leader = loading.get(key);
+            if (leader == null) {
+                final CompletableFuture<PageCheck> future = updatePage(page, time);
+                loading.put(key, future);
+                leaders.put(key, page);
+                futures.set(i, future);
+            } else {
+                futures.set(i, shareResult(leaders.get(key), page, leader, time));
+                shared++;
+            }
+        }
+
+        if (shared > 0) {
+            System.out.println("Loading " + (loading.size() + shared) + " pages from " + loading.size() + " distinct urls");
+        }
+
+        return futures;
+    }
+
+    private CompletableFuture<Map<String, Map<Fuel, Float>>> loadList(String url) {
+        return fetcher.fetch(url, false)
+                .thenApplyAsync(res -> {
+                    final PriceExtractor extractor = res != null ? extractors.get(res.getUrl()) : null;
+                    final Document doc = parsePage(res);
+                    if (extractor == null || doc == null) {
+                        return Collections.<String, Map<Fuel, Float>>emptyMap();
+                    }
+
+                    // Entries are mapped by their detail page, so they can be matched with the pages
+                    final Map<String, Map<Fuel, Float>> entries = new HashMap<>();
+                    for (Entry<String, Map<Fuel, Float>> entry : extractor.extractList(doc).entrySet()) {
+                        entries.put(Utils.normalizeUrl(entry.getKey()), entry.getValue());
+                    }
+                    return entries;
+                }, parsePool)
+                .exceptionally(e -> {
+                    System.err.println("Couldn't load list page: " + url);
+                    return Collections.emptyMap();
+                });
+    }
+
+    private CompletableFuture<PageCheck> updateFromList(PriceData page, CompletableFuture<Map<String, Map<Fuel, Float>>> list, long time) {
+        return list.thenCompose(entries -> {
+            // Page isn't on the list or the list failed -> load its detail page instead
+            final Map<Fuel, Float> prices = entries.get(Utils.normalizeUrl(page.getUrl()));
+            if (prices == null || prices.isEmpty()) {
+                return updatePage(page, time);
+            }
+
+            // Same prices as on the last check
+            final long fingerprint = fingerprint(prices);
+            final Long last = fingerprints.get(page.getId());
+            if (last != null && last == fingerprint) {
+                return CompletableFuture.completedFuture(PageCheck.unchanged(page, null, fingerprint));
+            }
+
+            applyPrices(page, prices, time);
+            return CompletableFuture.completedFuture(PageCheck.updated(page, null, fingerprint));
         });
+    }
+
+    public Map<String, CircuitBreaker> getBreakers() {
+        return fetcher.getBreakers();
+    }
 
-        // Save prices in database
-        database.savePriceData(pages);
-        System.gc();
+    public Map<String, PageClient.HostStats> getTraffic() {
+        return fetcher.getClient().getStats();
     }
 
     public synchronized void cancel() {
+        if (queue != null) {
+            queue.stop();
+        }
         service.shutdown();
+        fetcher.shutdown();
+        fetchPool.shutdownNow();
+        parsePool.shutdownNow();
 
         if (period < 0) {
             return;
@@ -141,83 +658,200 @@ public class PageParser {
         System.out.println("Shut down Page Parser");
     }
 
-    private Document loadPage(String url) {
+    CompletableFuture<PageCheck> updatePage(PriceData page, long time) {
+        final CompletableFuture<FetchResult> request = fetcher.fetch(page);
+        final CompletableFuture<PageCheck> future = request
+                .thenApplyAsync(res -> {
+                    // Server confirmed that the page didn't change -> nothing to parse or save
+                    if (res != null && res.isNotModified()) {
+                        return PageCheck.unchanged(page, null, fingerprints.get(page.getId()));
+                    }
+
+                    // Remember redirects, so pages ending up on the same document share their request next time
+                    if (res != null) {
+                        final String from = Utils.normalizeUrl(page.getUrl());
+                        final String to = Utils.normalizeUrl(res.getUrl());
+                        if (!from.equals(to)) {
+                            redirects.put(from, to);
+                        } else {
+                            redirects.remove(from);
+                        }
+                    }
+
+                    // Parse HTML-Page and select the block containing the prices
+                    final PriceExtractor extractor = res != null ? extractors.get(res.getUrl()) : null;
+                    final Element container = loadContainer(extractor, parsePage(res));
+
+                    // Price block is the same as on the last check -> prices didn't change
+                    final long fingerprint = container != null ? fingerprint(container) : 0;
+                    final Long last = fingerprints.get(page.getId());
+                    if (container != null && last != null && last == fingerprint) {
+                        return PageCheck.unchanged(page, res, fingerprint, extractor, container);
+                    }
+
+                    // Load Prices from page
+                    final Map<Fuel, Float> prices = loadPrices(extractor, container);
+
+                    // Check if prices exists (HTML-Page correct and prices exist)
+                    if (prices == null) {
+                        System.err.println("Couldn't update prices for: " + page.getName());
+                        return PageCheck.failed(page, true);
+                    }
+
+                    // Apply prices to PriceData Object
+                    applyPrices(page, prices, time);
+
+                    // Validators are only kept for pages with valid prices, otherwise a broken page is never loaded again
+                    return PageCheck.updated(page, res, fingerprint);
+                }, parsePool)
+                .exceptionally(e -> {
+                    System.err.println("Couldn't update prices for: " + page.getName());
+                    return PageCheck.failed(page, false);
+                });
+
+        // Cancelling the page also cancels its request, if it is still waiting for the host
+        future.whenComplete((result, e) -> {
+            if (future.isCancelled()) {
+                request.cancel(false);
+            }
+        });
+
+        return future;
+    }
+
+    void commit(PageCheck check) {
+        // Validators and fingerprint only advance with accepted checks, a page cancelled or not saved is loaded again
+        final int id = check.getPage().getId();
+        if (check.isForget()) {
+            fetcher.forget(id);
+            fingerprints.remove(id);
+            return;
+        }
+
+        if (check.getResponse() != null) {
+            fetcher.remember(id, check.getResponse());
+        }
+        if (check.getFingerprint() != null) {
+            fingerprints.put(id, check.getFingerprint());
+        }
+    }
+
+    private static void applyPrices(PriceData page, Map<Fuel, Float> prices, long time) {
+        for (Entry<Fuel, Float> entry : prices.entrySet()) {
+            page.getPrices().put(
+                    entry.getKey(),
+                    new PriceMap(new long[]{time}, new float[]{entry.getValue()})
+            );
+        }
+    }
+
+    private CompletableFuture<PageCheck> shareResult(PriceData leader, PriceData page, CompletableFuture<PageCheck> future, long time) {
+        return future.thenCompose(check -> {
+            if (check.getResult() != PageResult.UPDATED && check.getResult() != PageResult.UNCHANGED) {
+                return CompletableFuture.completedFuture(check.forPage(page));
+            }
+
+            // Page has already seen this document itself -> nothing new, no matter what the leader saw before
+            final Long last = fingerprints.get(page.getId());
+            if (last != null && last.equals(check.getFingerprint())) {
+                return CompletableFuture.completedFuture(PageCheck.unchanged(page, check.getResponse(), last));
+            }
+
+            // Same document -> same prices, every page gets its own price maps
+            if (check.getResult() == PageResult.UPDATED) {
+                applyPrices(page, leader.getPrices(time), time);
+                return CompletableFuture.completedFuture(check.forPage(page));
+            }
+
+            // Unchanged for the leader, but new to this page -> read the prices from the unchanged block
+            final Map<Fuel, Float> prices = check.loadPrices();
+            if (prices != null && check.getFingerprint() != null) {
+                applyPrices(page, prices, time);
+                return CompletableFuture.completedFuture(PageCheck.updated(page, check.getResponse(), check.getFingerprint()));
+            }
+
+            // Leader got '304 Not Modified' without a body -> load the page with its own validators
+            return updatePage(page, time);
+        });
+    }
+
+    private String resolveUrl(String url) {
+        // Urls known to redirect are grouped by their target
+        final String key = Utils.normalizeUrl(url);
+        return redirects.getOrDefault(key, key);
+    }
+
+    static Document parsePage(FetchResult res) {
+        if (res == null) {
+            return null;
+        }
+
+        // Only the price block was read -> parse it as a small fragment instead of a full page
+        if (res.hasBlock()) {
+            return Jsoup.parseBodyFragment(res.getBlock(), res.getUrl());
+        }
+
         try {
-            // Load HTML-Page
-            return Jsoup.connect(url).get();
+            return Jsoup.parse(new ByteArrayInputStream(res.getBody()), res.getCharset(), res.getUrl());
         } catch (IOException e) {
             e.printStackTrace();
             return null;
         }
     }
 
-    private Map<Fuel, Float> loadPrices(Document doc) {
+    static Element loadContainer(PriceExtractor extractor, Document doc) {
         if (doc == null) {
             return null;
         }
 
-        final Map<Fuel, Float> prices = new EnumMap<>(Fuel.class);
+        // Check if the domain of the page is supported
+        if (extractor == null) {
+            System.err.println("Can't parse page: " + doc.baseUri());
+            return null;
+        }
 
         try {
-            // Parsing pages based on the domain
-            switch (Utils.getDomain(doc.baseUri())) {
-                case "clever-tanken.de":
-                    final Element container = doc.selectFirst("#prices-container");
-
-                    for (Element row : container.select(".price-row")) {
-                        try {
-                            final String name = row.selectFirst(".price-type-name").html();
-                            final Fuel fuel = Fuel.getByName(name);
-                            if (fuel == null) {
-                                continue;
-                            }
-
-                            final Element priceField = row.selectFirst(".price-field");
-                            final String priceString = priceField.selectFirst("span").html();
-
-                            final float price = Float.parseFloat(priceString) + 0.009F;
-                            final float value = Utils.round(price, 3);
-
-                            prices.put(fuel, value);
-                        } catch (Exception e) {
-                            System.err.println("Error while parsing: " + doc.baseUri());
-                        }
-                    }
+            return extractor.selectContainer(doc);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
 
-                    return prices;
-                case "find.shell.com":
-                    final Element list = doc.selectFirst(".fuels");
+    static long fingerprint(Element container) {
+        return fingerprint(container.outerHtml().getBytes(StandardCharsets.UTF_8));
+    }
 
-                    for (Element element : list.select(".fuels__row")) {
-                        try {
-                            final Element nameElement = element.selectFirst(".fuels__row-type");
-                            if (nameElement == null) {
-                                continue;
-                            }
+    static long fingerprint(Map<Fuel, Float> prices) {
+        // Fuels in a fixed order with the exact bits of their price, so the same prices always give the same bytes
+        final Map<Fuel, Float> sorted = new EnumMap<>(Fuel.class);
+        sorted.putAll(prices);
 
-                            final String name = nameElement.html();
-                            final Fuel fuel = Fuel.getByName(name);
-                            if (fuel == null) {
-                                continue;
-                            }
+        final ByteBuffer buffer = ByteBuffer.allocate(sorted.size() * 8);
+        for (Entry<Fuel, Float> entry : sorted.entrySet()) {
+            buffer.putInt(entry.getKey().getId()).putInt(Float.floatToIntBits(entry.getValue()));
+        }
+        return fingerprint(buffer.array());
+    }
 
-                            final Element priceField = element.selectFirst(".fuels__row-price");
-                            final String priceString = priceField.html().split("/", 2)[0].substring(1);
+    private static long fingerprint(byte[] data) {
+        try {
+            final byte[] hash = MessageDigest.getInstance("MD5").digest(data);
 
-                            final float price = Float.parseFloat(priceString);
-                            final float value = Utils.round(price, 3);
+            // First 8 bytes of the hash are enough to detect a change of the same page
+            return ByteBuffer.wrap(hash).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new InternalError(e);
+        }
+    }
 
-                            prices.put(fuel, value);
-                        } catch (Exception e) {
-                            System.err.println("Error while parsing: " + doc.baseUri());
-                        }
-                    }
+    static Map<Fuel, Float> loadPrices(PriceExtractor extractor, Element container) {
+        if (extractor == null || container == null) {
+            return null;
+        }
 
-                    return prices;
-                default:
-                    System.err.println("Can't parse page: " + doc.baseUri());
-                    return null;
-            }
+        try {
+            return extractor.extract(container);
         } catch (Exception e) {
             e.printStackTrace();
             return null;
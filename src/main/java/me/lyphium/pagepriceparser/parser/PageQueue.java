@@ -0,0 +1,441 @@
+package me.lyphium.pagepriceparser.parser;
+
+import lombok.Getter;
+import me.lyphium.pagepriceparser.Bot;
+import me.lyphium.pagepriceparser.database.DatabaseConnection;
+import me.lyphium.pagepriceparser.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+public class PageQueue {
+
+    // How often new or removed pages are loaded from the database
+    public static final long REFRESH_INTERVAL = 60 * 1000;
+    // How often updated prices are saved in the database
+    public static final long SAVE_INTERVAL = 1000;
+
+    private final PageParser parser;
+    private final PageSchedule schedule;
+    private final PollingCalendar calendar;
+    private final long period;
+    private final long failureInterval;
+    private final boolean staggered;
+
+    // Limits the number of pages checked at the same time
+    private final Semaphore workers;
+    @Getter
+    private final int workerCount;
+
+    // Pages ordered by their due time, the head is always the most overdue page
+    private final DelayQueue<PageTask> queue = new DelayQueue<>();
+    private final Map<Integer, PageTask> tasks = new ConcurrentHashMap<>();
+
+    // Pages with new prices, saved together by the save task
+    private final Queue<PriceData> updated = new ConcurrentLinkedQueue<>();
+
+    // Manual update, done when every page was checked once
+    private UpdateCycle cycle;
+
+    private final ScheduledExecutorService service = Executors.newSingleThreadScheduledExecutor();
+    private Thread dispatcher;
+    private volatile boolean running = false;
+    private volatile boolean stopped = false;
+
+    // Simulated time the pages were last loaded from the database
+    private long refreshed = Long.MIN_VALUE;
+
+    public PageQueue(PageParser parser, long period, ParserSettings settings) {
+        this.parser = parser;
+        this.schedule = parser.getSchedule();
+        this.calendar = parser.getCalendar();
+        this.period = Math.max(1, period);
+        this.failureInterval = Math.max(1, Math.min(this.period, settings.getFailureInterval()));
+        this.staggered = settings.isStaggered();
+        this.workerCount = Math.max(1, settings.getWorkers());
+        this.workers = new Semaphore(workerCount);
+    }
+
+    public synchronized void start(long startTime) {
+        if (running) {
+            return;
+        }
+        running = true;
+
+        final long startDelay = Math.max(0, startTime - Utils.currentTime());
+
+        service.scheduleWithFixedDelay(() -> refresh(Math.max(startTime, Utils.currentTime())),
+                startDelay, REFRESH_INTERVAL, TimeUnit.MILLISECONDS);
+        service.scheduleWithFixedDelay(this::save, startDelay, SAVE_INTERVAL, TimeUnit.MILLISECONDS);
+
+        dispatcher = new Thread(this::dispatch, "PageQueue");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    public synchronized void stop() {
+        stopped = true;
+        if (!running) {
+            return;
+        }
+        running = false;
+
+        dispatcher.interrupt();
+        service.shutdown();
+
+        // Pages of a manual update won't be checked anymore
+        if (cycle != null) {
+            cycle.getFuture().complete(cycle);
+        }
+
+        // Prices already loaded shouldn't get lost
+        save();
+    }
+
+    public synchronized UpdateCycle checkAll() {
+        // Update is already waiting for its pages -> join it instead of marking every page again
+        if (cycle != null && !cycle.isDone()) {
+            return cycle;
+        }
+
+        final long now = Utils.currentTime();
+        final UpdateCycle cycle = new UpdateCycle("Prices", null, period);
+        cycle.start(System.currentTimeMillis());
+        cycle.setTotal(tasks.size());
+        this.cycle = cycle;
+
+        if (tasks.isEmpty()) {
+            cycle.getFuture().complete(cycle);
+            return cycle;
+        }
+
+        // Every page is due right now, pages already overdue keep their place. Pages being checked count with their running check
+        for (PageTask task : tasks.values()) {
+            task.cycle = cycle;
+            if (queue.remove(task)) {
+                task.due = Math.min(task.due, now);
+                queue.add(task);
+            }
+        }
+
+        return cycle;
+    }
+
+    public synchronized UpdateCycle getRunningCycle() {
+        return cycle != null && !cycle.isDone() ? cycle : null;
+    }
+
+    public int getQueued() {
+        return queue.size();
+    }
+
+    public int getRunning() {
+        return workerCount - workers.availablePermits();
+    }
+
+    public List<PageTask> getTasks() {
+        final List<PageTask> list = new ArrayList<>(tasks.values());
+        list.sort(Comparator.comparingLong(PageTask::getMaxLateness).reversed().thenComparing(PageTask::getName));
+        return list;
+    }
+
+    private void dispatch() {
+        while (running) {
+            try {
+                // Wait for a free worker first, so the page taken is the most overdue one at that time
+                workers.acquire();
+
+                final PageTask task = queue.poll(1, TimeUnit.SECONDS);
+                if (task == null || task.removed) {
+                    workers.release();
+                    continue;
+                }
+
+                run(task);
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Simulation: Checks every page due at the given time of the clock and returns the time something is due next
+    public long runDue(long now) {
+        if (now >= refreshed + REFRESH_INTERVAL) {
+            refresh(now);
+            refreshed = now;
+        }
+
+        // Pages late for more than a period are due again right away and are taken by the same loop
+        final List<CompletableFuture<?>> checks = new ArrayList<>();
+        PageTask task;
+        while ((task = queue.poll()) != null || !checks.isEmpty()) {
+            if (task == null) {
+                checks.forEach(CompletableFuture::join);
+                checks.clear();
+                continue;
+            }
+            if (task.removed) {
+                continue;
+            }
+
+            workers.acquireUninterruptibly();
+            checks.add(run(task));
+        }
+        save();
+
+        final PageTask head = queue.peek();
+        final long next = refreshed + REFRESH_INTERVAL;
+        return head != null ? Math.min(head.due, next) : next;
+    }
+
+    private CompletableFuture<?> run(PageTask task) {
+        final long now = Utils.currentTime();
+        task.begin(now);
+
+        // Prices are stored in a fresh copy, so every check only saves its own prices
+        final PriceData source = task.page;
+        final PriceData page = new PriceData(source.getId(), source.getName(), source.getUrl(), source.getAddress(), source.getColor());
+
+        try {
+            return parser.updatePage(page, now).whenComplete((check, e) -> {
+                try {
+                    // Checks of the queue are never cancelled, so every check is accepted
+                    if (check != null) {
+                        parser.commit(check);
+                    }
+                    finish(task, page, check != null ? check.getResult() : PageResult.FAILED, now);
+                } finally {
+                    workers.release();
+                }
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+            finish(task, page, PageResult.FAILED, now);
+            workers.release();
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private void finish(PageTask task, PriceData page, PageResult result, long time) {
+        if (result == PageResult.UPDATED) {
+            updated.add(page);
+        }
+
+        // Feed the result back to the scheduler
+        if (schedule != null) {
+            schedule.record(page, result, time);
+        }
+
+        task.end(result, Utils.currentTime());
+        completeCycle(task, result);
+
+        // Page was removed while it was checked
+        if (task.removed || stopped) {
+            return;
+        }
+
+        task.due = nextDue(task, page, result, time);
+
+        // Manual update started after this check was counted
+        if (task.cycle != null) {
+            task.due = Math.min(task.due, Utils.currentTime());
+        }
+        queue.add(task);
+    }
+
+    private void completeCycle(PageTask task, PageResult result) {
+        final UpdateCycle cycle = task.cycle;
+        if (cycle != null) {
+            task.cycle = null;
+            cycle.pageCompleted(result);
+        }
+    }
+
+    private long nextDue(PageTask task, PriceData page, PageResult result, long time) {
+        // Failed pages are checked again soon, but never later than their normal due time
+        if (result == PageResult.FAILED) {
+            final long next = schedule != null ? schedule.getNextCheck(page, time) : nextRegular(task);
+            return Math.max(time, Math.min(next, time + failureInterval));
+        }
+
+        if (schedule != null) {
+            return schedule.getNextCheck(page, time);
+        }
+
+        // Keep the phase of the page, a page late for more than a period is due right away
+        return Math.max(time, nextRegular(task));
+    }
+
+    private long nextRegular(PageTask task) {
+        // Period of the time of day the page was due
+        return calendar != null ? calendar.next(task.due) : task.due + period;
+    }
+
+    private void refresh(long now) {
+        try {
+            final DatabaseConnection database = Bot.getInstance().getDatabase();
+
+            // Checking if the connection to the database is available, otherwise keep the current pages
+            if (database == null || !database.isConnected()) {
+                return;
+            }
+
+            final List<PriceData> pages = database.getPages();
+            final Set<Integer> ids = new HashSet<>();
+
+            // History of new pages is loaded at once, before their first check is planned
+            if (schedule != null) {
+                schedule.preload(pages, now);
+            }
+
+            for (PriceData page : pages) {
+                ids.add(page.getId());
+
+                final PageTask task = tasks.get(page.getId());
+                if (task != null) {
+                    // Name or url might have changed
+                    task.page = page;
+                    continue;
+                }
+
+                // New page -> first check right away, spread over the period or as planned by the scheduler
+                final PageTask created = new PageTask(page);
+                if (schedule != null) {
+                    created.due = schedule.getNextCheck(page, now);
+                } else if (staggered) {
+                    created.due = now + PageParser.offset(page, period);
+                } else {
+                    created.due = now;
+                }
+
+                tasks.put(page.getId(), created);
+                queue.add(created);
+            }
+
+            // Pages removed from the database
+            tasks.values().removeIf(task -> {
+                if (ids.contains(task.getId())) {
+                    return false;
+                }
+                task.removed = true;
+                queue.remove(task);
+                completeCycle(task, PageResult.CANCELLED);
+                return true;
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void save() {
+        if (updated.isEmpty()) {
+            return;
+        }
+
+        final List<PriceData> pages = new ArrayList<>();
+        PriceData page;
+        while ((page = updated.poll()) != null) {
+            pages.add(page);
+        }
+
+        try {
+            final DatabaseConnection database = Bot.getInstance().getDatabase();
+
+            // Keep the prices until the connection is available again
+            if (database == null || !database.isConnected() || !database.savePriceData(pages)) {
+                updated.addAll(pages);
+            }
+        } catch (Exception e) {
+            updated.addAll(pages);
+            e.printStackTrace();
+        }
+    }
+
+    @Getter
+    public static class PageTask implements Delayed {
+
+        private final int id;
+        private volatile PriceData page;
+
+        // Time the page should be checked next
+        private volatile long due;
+        private volatile boolean removed = false;
+        private volatile boolean active = false;
+
+        // Manual update waiting for this page
+        private volatile UpdateCycle cycle;
+
+        // Lateness is the time between the due time and the actual start of a check
+        private int checks = 0;
+        private long lastLateness = 0;
+        private long totalLateness = 0;
+        private long maxLateness = 0;
+        private long lastDuration = 0;
+        private PageResult lastResult;
+
+        private long started;
+
+        private PageTask(PriceData page) {
+            this.id = page.getId();
+            this.page = page;
+        }
+
+        public String getName() {
+            return page.getName();
+        }
+
+        public long getAverageLateness() {
+            return checks == 0 ? 0 : totalLateness / checks;
+        }
+
+        // Time the page is already waiting past its due time
+        public long getWaiting(long now) {
+            return active ? 0 : Math.max(0, now - due);
+        }
+
+        private synchronized void begin(long now) {
+            active = true;
+            started = now;
+            lastLateness = Math.max(0, now - due);
+            totalLateness += lastLateness;
+            maxLateness = Math.max(maxLateness, lastLateness);
+            checks++;
+        }
+
+        private synchronized void end(PageResult result, long now) {
+            active = false;
+            lastResult = result;
+            lastDuration = now - started;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(due - Utils.currentTime(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed o) {
+            final PageTask other = (PageTask) o;
+            final int compare = Long.compare(due, other.due);
+            return compare != 0 ? compare : Integer.compare(id, other.id);
+        }
+
+    }
+
+}
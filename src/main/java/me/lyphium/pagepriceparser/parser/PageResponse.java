@@ -0,0 +1,27 @@
+package me.lyphium.pagepriceparser.parser;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface PageResponse extends Closeable {
+
+    // Url of the page after all redirects
+    String getUrl();
+
+    int getStatusCode();
+
+    // Charset sent by the server or null if unknown
+    String getCharset();
+
+    String header(String name);
+
+    // Decoded body, never longer than the maximum body size
+    InputStream bodyStream() throws IOException;
+
+    byte[] bodyAsBytes() throws IOException;
+
+    // Body was larger than the maximum size and was cut off
+    boolean isTruncated();
+
+}
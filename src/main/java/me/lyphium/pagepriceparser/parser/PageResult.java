@@ -0,0 +1,14 @@
+package me.lyphium.pagepriceparser.parser;
+
+public enum PageResult {
+
+    // New prices were loaded from the page
+    UPDATED,
+    // Page didn't change since the last check
+    UNCHANGED,
+    // Page couldn't be loaded or parsed
+    FAILED,
+    // Page was still loading when the update cycle ran out of time, its prices are stale
+    CANCELLED
+
+}
@@ -0,0 +1,188 @@
+package me.lyphium.pagepriceparser.parser;
+
+import lombok.Getter;
+import me.lyphium.pagepriceparser.Bot;
+import me.lyphium.pagepriceparser.database.DatabaseConnection;
+import me.lyphium.pagepriceparser.utils.PriceMap;
+
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class PageSchedule {
+
+    // Number of checks between two price changes the intervals aim for
+    public static final int CHECKS_PER_CHANGE = 2;
+
+    private final long period;
+    private final long minInterval, maxInterval;
+    private final long window;
+
+    private final Map<Integer, PageState> states = new ConcurrentHashMap<>();
+
+    public PageSchedule(long period, ParserSettings settings) {
+        this.period = Math.max(1, period);
+        this.minInterval = Math.max(1, settings.getMinInterval());
+        this.maxInterval = Math.max(minInterval, settings.getMaxInterval());
+        this.window = Math.max(1, settings.getWindow());
+    }
+
+    public void preload(List<PriceData> pages, long now) {
+        final List<PageState> created = new ArrayList<>();
+        for (PriceData page : pages) {
+            if (!states.containsKey(page.getId())) {
+                created.add(new PageState(page));
+            }
+        }
+        if (created.isEmpty()) {
+            return;
+        }
+
+        // Recent prices of all new pages with a single query, stored in copies so they are never saved again
+        final DatabaseConnection database = Bot.getInstance().getDatabase();
+        if (database != null) {
+            final List<PriceData> histories = new ArrayList<>(created.size());
+            for (PageState state : created) {
+                histories.add(state.history);
+            }
+            database.loadPriceData(histories, new Timestamp(now - window), new Timestamp(now));
+        }
+
+        for (PageState state : created) {
+            states.putIfAbsent(state.id, initState(state, now));
+        }
+    }
+
+    public boolean isDue(PriceData page, long now) {
+        final PageState state = states.computeIfAbsent(page.getId(), id -> initState(new PageState(page), now));
+        return state.nextCheck <= now;
+    }
+
+    public void record(PriceData page, PageResult result, long time) {
+        final PageState state = states.get(page.getId());
+        if (state == null) {
+            return;
+        }
+
+        synchronized (state) {
+            state.lastCheck = time;
+
+            switch (result) {
+                case UPDATED:
+                    // Observed prices of this check
+                    for (Entry<Fuel, PriceMap> entry : page.getPrices().entrySet()) {
+                        final PriceMap prices = entry.getValue();
+                        if (!prices.isEmpty()) {
+                            state.history.addPrice(entry.getKey(), time, prices.get(prices.size() - 1));
+                        }
+                    }
+                    break;
+                case UNCHANGED:
+                    // Same prices as on the last check
+                    for (PriceMap prices : state.history.getPrices().values()) {
+                        if (!prices.isEmpty()) {
+                            prices.put(time, prices.get(prices.size() - 1));
+                        }
+                    }
+                    break;
+                case FAILED:
+                case CANCELLED:
+                default:
+                    // Nothing observed, keep the interval
+                    state.nextCheck = time + state.interval;
+                    return;
+            }
+
+            trim(state, time);
+            updateInterval(state, time);
+            state.nextCheck = time + state.interval;
+        }
+    }
+
+    public long getNextCheck(PriceData page, long now) {
+        return states.computeIfAbsent(page.getId(), id -> initState(new PageState(page), now)).nextCheck;
+    }
+
+    public List<PageState> getStates() {
+        final List<PageState> list = new ArrayList<>(states.values());
+        list.sort(Comparator.comparingLong(PageState::getInterval).thenComparing(PageState::getName));
+        return list;
+    }
+
+    private PageState initState(PageState state, long now) {
+        // Pages not preloaded start without observations
+        updateInterval(state, now);
+
+        // Spread the first checks over the interval
+        state.nextCheck = now + PageParser.offset(state.history, Math.min(state.interval, period));
+
+        return state;
+    }
+
+    private void trim(PageState state, long now) {
+        // Remove observations older than the window
+        for (PriceMap prices : state.history.getPrices().values()) {
+            prices.removeRange(0, prices.nearestIndexOf(now - window));
+        }
+    }
+
+    private void updateInterval(PageState state, long now) {
+        long first = now;
+        int changes = 0;
+
+        // Count the changes of every fuel in the window
+        for (PriceMap prices : state.history.getPrices().values()) {
+            if (prices.isEmpty()) {
+                continue;
+            }
+
+            first = Math.min(first, prices.getKey(0));
+            for (int i = 1; i < prices.size(); i++) {
+                if (prices.get(i) != prices.get(i - 1)) {
+                    changes++;
+                }
+            }
+        }
+
+        state.changes = changes;
+
+        // Not enough observations yet -> use the normal period
+        if (now - first < period) {
+            state.interval = Math.max(minInterval, Math.min(maxInterval, period));
+            return;
+        }
+
+        // No change in the window -> check as rarely as possible
+        if (changes == 0) {
+            state.interval = maxInterval;
+            return;
+        }
+
+        final long interval = (now - first) / ((long) changes * CHECKS_PER_CHANGE);
+        state.interval = Math.max(minInterval, Math.min(maxInterval, interval));
+    }
+
+    @Getter
+    public static class PageState {
+
+        private final int id;
+        private final String name;
+
+        // Observed prices within the window
+        private final PriceData history;
+
+        private long interval;
+        private long nextCheck;
+        private long lastCheck;
+        private int changes;
+
+        private PageState(PriceData page) {
+            this.id = page.getId();
+            this.name = page.getName();
+            this.history = new PriceData(page.getId(), page.getName(), page.getUrl(), page.getAddress(), page.getColor());
+        }
+
+    }
+
+}
@@ -0,0 +1,11 @@
+package me.lyphium.pagepriceparser.parser;
+
+import java.io.IOException;
+import java.util.Map;
+
+public interface PageSource {
+
+    // Sends a GET request with the given headers, throws the same exceptions as Jsoup for bad responses
+    PageResponse execute(String url, Map<String, String> headers) throws IOException;
+
+}
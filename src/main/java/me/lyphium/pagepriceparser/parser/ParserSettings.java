@@ -0,0 +1,93 @@
+package me.lyphium.pagepriceparser.parser;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+public class ParserSettings {
+
+    public static final int DEFAULT_DOMAIN_LIMIT = 8;
+    public static final int DEFAULT_FETCH_THREADS = 64;
+    public static final int DEFAULT_FETCH_QUEUE_LIMIT = 10000;
+    public static final int DEFAULT_PARSE_THREADS = Runtime.getRuntime().availableProcessors();
+    public static final int DEFAULT_PARSE_QUEUE_LIMIT = 1000;
+    public static final int DEFAULT_RETRIES = 2;
+    public static final long DEFAULT_RETRY_DELAY = 2000;
+    public static final int DEFAULT_BREAKER_THRESHOLD = 5;
+    public static final long DEFAULT_BREAKER_TIME = 5 * 60 * 1000;
+    public static final int DEFAULT_SLOTS = 60;
+    public static final long DEFAULT_MIN_INTERVAL = 5 * 60 * 1000;
+    public static final long DEFAULT_MAX_INTERVAL = 6 * 60 * 60 * 1000;
+    public static final long DEFAULT_WINDOW = 2 * 24 * 60 * 60 * 1000;
+    public static final int DEFAULT_WORKERS = 32;
+    public static final int DEFAULT_MAX_BODY_SIZE = 2 * 1024 * 1024;
+    public static final long DEFAULT_FAILURE_INTERVAL = 5 * 60 * 1000;
+
+    // Maximum number of requests running at the same time against one domain
+    private int domainLimit = DEFAULT_DOMAIN_LIMIT;
+
+    // Size and queue limit of the pool loading the pages
+    private int fetchThreads = DEFAULT_FETCH_THREADS;
+    private int fetchQueueLimit = DEFAULT_FETCH_QUEUE_LIMIT;
+
+    // Size and queue limit of the pool parsing the pages
+    private int parseThreads = DEFAULT_PARSE_THREADS;
+    private int parseQueueLimit = DEFAULT_PARSE_QUEUE_LIMIT;
+
+    // Number of retries of a failed request and the delay before the first retry, doubled with every retry
+    private int retries = DEFAULT_RETRIES;
+    private long retryDelay = DEFAULT_RETRY_DELAY;
+
+    // Failures in a row until a host is considered down and how long no requests are sent to it
+    private int breakerThreshold = DEFAULT_BREAKER_THRESHOLD;
+    private long breakerTime = DEFAULT_BREAKER_TIME;
+
+    // Spread the checks of all pages evenly over the period, divided into the given number of slots
+    private boolean staggered = false;
+    private int slots = DEFAULT_SLOTS;
+
+    // Give every page its own interval based on how often its prices changed within the window
+    private boolean adaptive = false;
+    private long minInterval = DEFAULT_MIN_INTERVAL;
+    private long maxInterval = DEFAULT_MAX_INTERVAL;
+    private long window = DEFAULT_WINDOW;
+
+    // Only read pages until their price block was found instead of loading and parsing the complete page
+    private boolean streaming = false;
+
+    // Maximum number of bytes read from a page, larger pages are cut off
+    private int maxBodySize = DEFAULT_MAX_BODY_SIZE;
+
+    // Serve pages from recorded files instead of the network, with artificial latency and errors
+    private File replayDirectory = null;
+    private long replayLatency = 0;
+    private double replayErrorRate = 0;
+
+    // Store every complete page loaded from the network, in the layout used for replays
+    private File recordDirectory = null;
+
+    // Url prefixes mapped to the domain whose extractor reads them
+    private Map<String, String> aliases = new LinkedHashMap<>();
+
+    // Load pages sharing a list page, e.g. all stations around a postal code, with a single request
+    private boolean lists = false;
+
+    // Maximum time of one update cycle, 0 to use the time until the next cycle
+    private long cycleBudget = 0;
+
+    // Rules with different periods per time of day and weekday, file or inline definition, null to always use the period
+    private String calendar = null;
+
+    // Check every page on its own due time, the most overdue page first, with the given number of pages at once
+    private boolean queued = false;
+    private int workers = DEFAULT_WORKERS;
+
+    // Time until a failed page is checked again in queue mode
+    private long failureInterval = DEFAULT_FAILURE_INTERVAL;
+
+}
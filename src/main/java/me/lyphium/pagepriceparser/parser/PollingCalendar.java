@@ -0,0 +1,219 @@
+package me.lyphium.pagepriceparser.parser;
+
+import me.lyphium.pagepriceparser.utils.Utils;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class PollingCalendar {
+
+    /*
+     *  Rules are separated by ';' or new lines, the first matching rule wins:
+     *  Mo-Fr 06:00-09:00 10m; 11:00-13:00 5m; 22:00-06:00 1h; Sa,Su 30m
+     *  Days and time window are optional, a rule without both matches always.
+     *  A window over midnight belongs to the day it starts, 'Fr 22:00-06:00' also matches Saturday morning.
+     */
+    private static final Pattern RULE_PATTERN = Pattern.compile(
+            "(?i)^(?:([a-z]{2}(?:\\s*[-,]\\s*[a-z]{2})*)\\s+)?(?:(\\d{1,2}):(\\d{2})\\s*-\\s*(\\d{1,2}):(\\d{2})\\s+)?(\\S+)$"
+    );
+
+    private static final Map<String, DayOfWeek> DAYS = new HashMap<>();
+
+    static {
+        final String[][] names = {{"mo"}, {"tu", "di"}, {"we", "mi"}, {"th", "do"}, {"fr"}, {"sa"}, {"su", "so"}};
+        for (int i = 0; i < names.length; i++) {
+            for (String name : names[i]) {
+                DAYS.put(name, DayOfWeek.of(i + 1));
+            }
+        }
+    }
+
+    private final List<Rule> rules;
+    private final long defaultPeriod;
+    private final ZoneId zone;
+
+    private PollingCalendar(List<Rule> rules, long defaultPeriod, ZoneId zone) {
+        this.rules = Collections.unmodifiableList(rules);
+        this.defaultPeriod = Math.max(1, defaultPeriod);
+        this.zone = zone;
+    }
+
+    public static PollingCalendar parse(String s, long defaultPeriod) {
+        final List<Rule> rules = new ArrayList<>();
+
+        for (String line : s.split("[;\\n]")) {
+            // Remove comments
+            final int comment = line.indexOf('#');
+            final String part = (comment >= 0 ? line.substring(0, comment) : line).trim();
+            if (part.isEmpty()) {
+                continue;
+            }
+
+            final Matcher matcher = RULE_PATTERN.matcher(part);
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Invalid rule: " + part);
+            }
+
+            final Set<DayOfWeek> days = matcher.group(1) != null ? parseDays(matcher.group(1)) : EnumSet.allOf(DayOfWeek.class);
+
+            int from = 0, to = 24 * 60;
+            if (matcher.group(2) != null) {
+                from = parseTime(matcher.group(2), matcher.group(3));
+                to = parseTime(matcher.group(4), matcher.group(5));
+            }
+
+            final long period = Utils.calculatePeriod(matcher.group(6));
+            if (period <= 0) {
+                throw new IllegalArgumentException("Invalid period: " + matcher.group(6));
+            }
+
+            rules.add(new Rule(part, days, from, to, period));
+        }
+
+        if (rules.isEmpty()) {
+            throw new IllegalArgumentException("No rules defined");
+        }
+
+        return new PollingCalendar(rules, defaultPeriod, ZoneId.systemDefault());
+    }
+
+    public long getPeriod(long time) {
+        final ZonedDateTime date = Instant.ofEpochMilli(time).atZone(zone);
+        final int minute = date.getHour() * 60 + date.getMinute();
+
+        for (Rule rule : rules) {
+            if (rule.matches(date.getDayOfWeek(), minute)) {
+                return rule.period;
+            }
+        }
+
+        // No rule matches -> normal period
+        return defaultPeriod;
+    }
+
+    public long next(long time) {
+        final long period = getPeriod(time);
+        long next = time + period;
+
+        // Check earlier if a window with a shorter period starts before the next check
+        for (long boundary : boundaries(time, next)) {
+            if (getPeriod(boundary) < period) {
+                next = Math.min(next, boundary);
+            }
+        }
+
+        return next;
+    }
+
+    private List<Long> boundaries(long from, long to) {
+        final List<Long> list = new ArrayList<>();
+        final LocalDate start = Instant.ofEpochMilli(from).atZone(zone).toLocalDate();
+        final long days = Math.min(8, (to - from) / (24 * 60 * 60 * 1000L) + 2);
+
+        // Start and end of every window on all days until the next check
+        for (int day = 0; day < days; day++) {
+            final LocalDate date = start.plusDays(day);
+            for (Rule rule : rules) {
+                for (int minute : new int[]{rule.from, rule.to}) {
+                    final long time = date.atStartOfDay(zone).plusMinutes(minute).toInstant().toEpochMilli();
+                    if (time > from && time < to) {
+                        list.add(time);
+                    }
+                }
+            }
+        }
+
+        return list;
+    }
+
+    private static Set<DayOfWeek> parseDays(String s) {
+        final Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+
+        for (String part : s.toLowerCase().split(",")) {
+            final String[] range = part.split("-");
+            final DayOfWeek first = parseDay(range[0]);
+            final DayOfWeek last = parseDay(range[range.length - 1]);
+
+            // Ranges may wrap around the end of the week, e.g. 'Sa-Mo'
+            for (DayOfWeek day = first; ; day = day.plus(1)) {
+                days.add(day);
+                if (day == last) {
+                    break;
+                }
+            }
+        }
+
+        return days;
+    }
+
+    private static DayOfWeek parseDay(String s) {
+        final DayOfWeek day = DAYS.get(s.trim());
+        if (day == null) {
+            throw new IllegalArgumentException("Invalid day: " + s.trim());
+        }
+        return day;
+    }
+
+    private static int parseTime(String hours, String minutes) {
+        final int h = Integer.parseInt(hours);
+        final int m = Integer.parseInt(minutes);
+        if (h > 24 || m > 59 || (h == 24 && m > 0)) {
+            throw new IllegalArgumentException("Invalid time: " + hours + ":" + minutes);
+        }
+        return h * 60 + m;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+        for (Rule rule : rules) {
+            builder.append("» ").append(rule.text).append('\n');
+        }
+        builder.append("» otherwise ").append(defaultPeriod / 1000).append("sec");
+        return builder.toString();
+    }
+
+    private static class Rule {
+
+        private final String text;
+        private final Set<DayOfWeek> days;
+
+        // Window in minutes of the day, 'from' after 'to' if the window lasts over midnight
+        private final int from, to;
+        private final long period;
+
+        private Rule(String text, Set<DayOfWeek> days, int from, int to, long period) {
+            this.text = text;
+            this.days = days;
+            this.from = from;
+            this.to = to;
+            this.period = period;
+        }
+
+        private boolean matches(DayOfWeek day, int minute) {
+            if (from <= to) {
+                return days.contains(day) && minute >= from && minute < to;
+            }
+
+            // Window lasts over midnight, its early part belongs to the window started the day before
+            if (minute >= from) {
+                return days.contains(day);
+            }
+            return minute < to && days.contains(day.minus(1));
+        }
+
+    }
+
+}
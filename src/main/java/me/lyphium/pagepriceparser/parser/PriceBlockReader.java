@@ -0,0 +1,155 @@
+package me.lyphium.pagepriceparser.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class PriceBlockReader {
+
+    public static final int DEFAULT_MAX_BLOCK_SIZE = 256 * 1024;
+
+    // Characters kept from the already scanned part, so markers and tags split between two reads are still found
+    private static final int OVERLAP = 1024;
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Pattern marker;
+    private final int maxBlockSize;
+
+    public PriceBlockReader(Pattern marker, int maxBlockSize) {
+        this.marker = marker;
+        this.maxBlockSize = maxBlockSize;
+    }
+
+    public PriceBlockReader(Pattern marker) {
+        this(marker, DEFAULT_MAX_BLOCK_SIZE);
+    }
+
+    public String read(InputStream in, Charset charset) throws IOException {
+        final Reader reader = new InputStreamReader(in, charset);
+        final char[] buffer = new char[BUFFER_SIZE];
+        final StringBuilder window = new StringBuilder(2 * BUFFER_SIZE);
+
+        // Phase 1: Scan for the attribute marking the price block
+        int start = -1;
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            final int from = Math.max(0, window.length() - OVERLAP);
+            window.append(buffer, 0, read);
+
+            final Matcher matcher = marker.matcher(window);
+            if (matcher.find(from)) {
+                start = window.lastIndexOf("<", matcher.start());
+                if (start >= 0) {
+                    break;
+                }
+            }
+
+            // Drop everything that can't be part of the block anymore
+            if (window.length() > 4 * BUFFER_SIZE) {
+                window.delete(0, window.length() - OVERLAP);
+            }
+        }
+
+        if (start < 0) {
+            return null;
+        }
+
+        window.delete(0, start);
+
+        // Tag name of the block, used to find its closing tag
+        int nameEnd = 1;
+        while (nameEnd < window.length() && Character.isLetterOrDigit(window.charAt(nameEnd))) {
+            nameEnd++;
+        }
+        final String name = window.substring(1, nameEnd).toLowerCase();
+        if (name.isEmpty()) {
+            return null;
+        }
+
+        // Phase 2: Read until the block is closed, the rest of the body is never read
+        int depth = 0;
+        int pos = 0;
+        while (true) {
+            final int end = findEnd(window, name, pos, depth);
+            if (end >= 0) {
+                return window.substring(0, end);
+            }
+
+            // Depth of everything before the last tag, which might be incomplete
+            final int safe = Math.max(pos, window.length() - name.length() - 2);
+            depth = countDepth(window, name, pos, safe, depth);
+            pos = safe;
+
+            if (window.length() > maxBlockSize || (read = reader.read(buffer)) == -1) {
+                return null;
+            }
+            window.append(buffer, 0, read);
+        }
+    }
+
+    private int findEnd(CharSequence s, String name, int from, int depth) {
+        for (int i = from; i < s.length(); i++) {
+            if (s.charAt(i) != '<') {
+                continue;
+            }
+
+            if (isTag(s, i + 1, name)) {
+                depth++;
+            } else if (i + 1 < s.length() && s.charAt(i + 1) == '/' && isTag(s, i + 2, name)) {
+                depth--;
+
+                if (depth == 0) {
+                    final int close = indexOf(s, '>', i);
+                    return close < 0 ? -1 : close + 1;
+                }
+            }
+        }
+
+        return -1;
+    }
+
+    private int countDepth(CharSequence s, String name, int from, int to, int depth) {
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) != '<') {
+                continue;
+            }
+
+            if (isTag(s, i + 1, name)) {
+                depth++;
+            } else if (i + 1 < s.length() && s.charAt(i + 1) == '/' && isTag(s, i + 2, name)) {
+                depth--;
+            }
+        }
+        return depth;
+    }
+
+    private boolean isTag(CharSequence s, int pos, String name) {
+        if (pos + name.length() >= s.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < name.length(); i++) {
+            if (Character.toLowerCase(s.charAt(pos + i)) != name.charAt(i)) {
+                return false;
+            }
+        }
+
+        // Tag name must end here, e.g. 'div' must not match 'divider'
+        final char next = s.charAt(pos + name.length());
+        return next == '>' || next == '/' || Character.isWhitespace(next);
+    }
+
+    private int indexOf(CharSequence s, char c, int from) {
+        for (int i = from; i < s.length(); i++) {
+            if (s.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
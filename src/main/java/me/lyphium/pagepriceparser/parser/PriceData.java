@@ -74,6 +74,15 @@ public class PriceData implements Serializable {
         prices.get(fuel).put(time, value);
     }
 
+    public void addPrices(Fuel fuel, PriceMap values) {
+        // Map is used as it is if the fuel has no prices yet
+        if (!prices.containsKey(fuel)) {
+            prices.put(fuel, values);
+        } else {
+            prices.get(fuel).putAll(values);
+        }
+    }
+
     @Override
     public String toString() {
         return "PriceData{" +
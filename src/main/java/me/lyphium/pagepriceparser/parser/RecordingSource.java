@@ -0,0 +1,150 @@
+package me.lyphium.pagepriceparser.parser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RecordingSource implements PageSource {
+
+    private final PageSource source;
+    private final File directory;
+
+    private final AtomicInteger recorded = new AtomicInteger();
+
+    public RecordingSource(PageSource source, File directory) {
+        this.source = source;
+        this.directory = directory;
+    }
+
+    public int getRecorded() {
+        return recorded.get();
+    }
+
+    @Override
+    public PageResponse execute(String url, Map<String, String> headers) throws IOException {
+        // Conditional requests would only record '304 Not Modified'
+        final Map<String, String> unconditional = new HashMap<>(headers);
+        unconditional.remove("If-None-Match");
+        unconditional.remove("If-Modified-Since");
+
+        return new RecordingResponse(url, source.execute(url, unconditional));
+    }
+
+    private void save(String url, byte[] body) {
+        final File file = ReplaySource.getFile(directory, url);
+
+        try {
+            Files.createDirectories(file.getParentFile().toPath());
+            Files.write(file.toPath(), body);
+            recorded.incrementAndGet();
+        } catch (IOException e) {
+            System.err.println("Couldn't record page: " + url + " (" + e.getMessage() + ")");
+        }
+    }
+
+    private class RecordingResponse implements PageResponse {
+
+        private final String url;
+        private final PageResponse response;
+
+        // Everything read from the body, the rest is read when the response is closed
+        private final ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        private InputStream body;
+
+        private RecordingResponse(String url, PageResponse response) {
+            this.url = url;
+            this.response = response;
+        }
+
+        @Override
+        public String getUrl() {
+            return response.getUrl();
+        }
+
+        @Override
+        public int getStatusCode() {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public String getCharset() {
+            return response.getCharset();
+        }
+
+        @Override
+        public String header(String name) {
+            return response.header(name);
+        }
+
+        @Override
+        public InputStream bodyStream() throws IOException {
+            if (body == null) {
+                body = new FilterInputStream(response.bodyStream()) {
+                    @Override
+                    public int read() throws IOException {
+                        final int b = super.read();
+                        if (b >= 0) {
+                            copy.write(b);
+                        }
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException {
+                        final int n = super.read(b, off, len);
+                        if (n > 0) {
+                            copy.write(b, off, n);
+                        }
+                        return n;
+                    }
+                };
+            }
+            return body;
+        }
+
+        @Override
+        public byte[] bodyAsBytes() throws IOException {
+            final InputStream in = bodyStream();
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+
+        @Override
+        public boolean isTruncated() {
+            return response.isTruncated();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                // Streaming mode stops after the price block, but the recording needs the complete page
+                final InputStream in = bodyStream();
+                final byte[] buffer = new byte[8192];
+                int read;
+                do {
+                    read = in.read(buffer);
+                } while (read != -1);
+
+                // Only complete pages are recorded
+                if (response.getStatusCode() == 200 && !response.isTruncated()) {
+                    save(url, copy.toByteArray());
+                }
+            } finally {
+                response.close();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,148 @@
+package me.lyphium.pagepriceparser.parser;
+
+import me.lyphium.pagepriceparser.utils.Utils;
+import org.jsoup.HttpStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ReplaySource implements PageSource {
+
+    private final File directory;
+    private final int maxBodySize;
+
+    // Artificial latency of every request and the share of requests failing like an unreachable host
+    private final long latency;
+    private final double errorRate;
+
+    // Requests per url, errors only depend on the url and the number of its request, not on timing
+    private final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+
+    public ReplaySource(File directory, int maxBodySize, long latency, double errorRate) {
+        this.directory = directory;
+        this.maxBodySize = Math.max(1, maxBodySize);
+        this.latency = Math.max(0, latency);
+        this.errorRate = Math.max(0, Math.min(1, errorRate));
+    }
+
+    @Override
+    public PageResponse execute(String url, Map<String, String> headers) throws IOException {
+        final int request = requests.computeIfAbsent(Utils.normalizeUrl(url), u -> new AtomicInteger()).getAndIncrement();
+        final Random random = new Random(Utils.normalizeUrl(url).hashCode() * 31L + request);
+
+        if (latency > 0) {
+            try {
+                // Latency varies between half and one and a half times the given value
+                Thread.sleep(latency / 2 + (long) (random.nextDouble() * latency));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting");
+            }
+        }
+
+        if (random.nextDouble() < errorRate) {
+            throw new IOException("Injected error: " + url);
+        }
+
+        final File file = getFile(directory, url);
+        if (!file.isFile()) {
+            throw new HttpStatusException("No recorded page", 404, url);
+        }
+
+        final byte[] data = Files.readAllBytes(file.toPath());
+        final boolean truncated = data.length > maxBodySize;
+        final byte[] body = truncated ? Arrays.copyOf(data, maxBodySize) : data;
+
+        return new RecordedResponse(url, body, truncated);
+    }
+
+    static File getFile(File directory, String url) {
+        /*
+         *  Pages are stored by domain and their normalized path and query:
+         *  https://www.clever-tanken.de/tankstelle_details/123 -> directory/clever-tanken.de/tankstelle_details%2F123.html
+         */
+        final String normalized = Utils.normalizeUrl(url);
+        final int slash = normalized.indexOf('/');
+        final String domain = slash >= 0 ? normalized.substring(0, slash) : normalized;
+        final String path = slash >= 0 ? normalized.substring(slash + 1) : "";
+
+        String name;
+        try {
+            name = path.isEmpty() ? "index" : URLEncoder.encode(path, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new InternalError(e);
+        }
+
+        // Keep file names within the limits of common file systems
+        if (name.length() > 200) {
+            name = name.substring(0, 180) + "-" + Integer.toHexString(path.hashCode());
+        }
+
+        return new File(new File(directory, domain.replace(':', '_')), name + ".html");
+    }
+
+    private static class RecordedResponse implements PageResponse {
+
+        private final String url;
+        private final byte[] body;
+        private final boolean truncated;
+
+        private RecordedResponse(String url, byte[] body, boolean truncated) {
+            this.url = url;
+            this.body = body;
+            this.truncated = truncated;
+        }
+
+        @Override
+        public String getUrl() {
+            return url;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return 200;
+        }
+
+        @Override
+        public String getCharset() {
+            // Detected from the page itself
+            return null;
+        }
+
+        @Override
+        public String header(String name) {
+            return null;
+        }
+
+        @Override
+        public InputStream bodyStream() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public byte[] bodyAsBytes() {
+            return body;
+        }
+
+        @Override
+        public boolean isTruncated() {
+            return truncated;
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+}
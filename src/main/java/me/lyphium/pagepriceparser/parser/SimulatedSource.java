@@ -0,0 +1,182 @@
+package me.lyphium.pagepriceparser.parser;
+
+import lombok.Getter;
+import lombok.Setter;
+import me.lyphium.pagepriceparser.utils.Utils;
+import org.jsoup.HttpStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SimulatedSource implements PageSource {
+
+    // Pages of simulated stations, the number after the prefix is the station
+    public static final String URL = "https://simulation.invalid/station/";
+
+    // Average time between two price changes of a station
+    public static final long CHANGE_INTERVAL = 3 * 60 * 60 * 1000;
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+    private static final long YEAR = 365 * DAY;
+
+    // Share of requests answered like a broken page
+    @Getter
+    @Setter
+    private volatile double failureRate = 0;
+
+    @Getter
+    private final AtomicLong requests = new AtomicLong();
+    @Getter
+    private final AtomicLong failures = new AtomicLong();
+
+    @Override
+    public PageResponse execute(String url, Map<String, String> headers) throws IOException {
+        requests.incrementAndGet();
+
+        final int station = getStation(url);
+        if (station < 0) {
+            failures.incrementAndGet();
+            throw new HttpStatusException("No simulated station", 404, url);
+        }
+
+        // Same failures for the same station and time on every run. Failing like a broken page instead of
+        // a broken host, retries of the host would wait in real time while the simulated time stands still
+        final long time = Utils.currentTime();
+        if (failureRate > 0 && new Random(station * 31L + time).nextDouble() < failureRate) {
+            failures.incrementAndGet();
+            throw new HttpStatusException("Simulated failure", 404, url);
+        }
+
+        return new SimulatedResponse(url, createPage(station, time).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int getStation(String url) {
+        if (!url.startsWith(URL)) {
+            return -1;
+        }
+
+        try {
+            return Integer.parseUnsignedInt(url.substring(URL.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static String createPage(int station, long time) {
+        // Same layout as the pages of clever-tanken.de, so the real extractor reads the prices
+        final StringBuilder builder = new StringBuilder(1024);
+        builder.append("<html><head><title>Sim ").append(station).append("</title></head><body>");
+        builder.append("<div id=\"prices-container\">");
+
+        for (Fuel fuel : Fuel.values()) {
+            if (!sells(station, fuel)) {
+                continue;
+            }
+
+            // Last digit is shown separately and always 9
+            final String price = String.format("%.2f", price(station, fuel, time) - 0.009F).replace(',', '.');
+            builder.append("<div class=\"price-row\"><div class=\"price-type-name\">").append(fuel.getName())
+                    .append("</div><div class=\"price-field\"><span>").append(price).append("</span><sup>9</sup></div></div>");
+        }
+
+        builder.append("</div></body></html>");
+        return builder.toString();
+    }
+
+    private static boolean sells(int station, Fuel fuel) {
+        switch (fuel) {
+            case DIESEL:
+            case SUPER_E10:
+            case SUPER_E5:
+                return true;
+            case SUPER_PLUS:
+                return station % 3 == 0;
+            case LKW_DIESEL:
+                return station % 5 == 0;
+            case AUTOGAS:
+                return station % 7 == 0;
+            default:
+                return false;
+        }
+    }
+
+    private static float price(int station, Fuel fuel, long time) {
+        /*
+         *  Prices only depend on the station and the time, never on when the page is checked:
+         *  base + yearly trend + time of day + random step, constant between two changes
+         */
+        final long phase = Math.floorMod(new Random(station * 31L).nextLong(), CHANGE_INTERVAL);
+        final long epoch = Math.floorDiv(time + phase, CHANGE_INTERVAL);
+        final long changed = epoch * CHANGE_INTERVAL - phase;
+
+        final ZonedDateTime date = Instant.ofEpochMilli(changed).atZone(ZoneId.systemDefault());
+        final double hour = date.getHour() + date.getMinute() / 60.0;
+
+        final float base = fuel == Fuel.AUTOGAS ? 1.05F : fuel == Fuel.SUPER_PLUS ? 1.95F : 1.75F + fuel.getId() * 0.02F;
+        final double trend = 0.15 * Math.sin(2 * Math.PI * Math.floorMod(changed, YEAR) / YEAR);
+        final double daily = 0.06 * Math.cos(2 * Math.PI * (hour - 7) / 24);
+        final int step = new Random(station * 31L + epoch * 7 + fuel.getId()).nextInt(7) - 3;
+
+        return Utils.round((float) (base + trend + daily) + step / 100F, 2) + 0.009F;
+    }
+
+    private static class SimulatedResponse implements PageResponse {
+
+        private final String url;
+        private final byte[] body;
+
+        private SimulatedResponse(String url, byte[] body) {
+            this.url = url;
+            this.body = body;
+        }
+
+        @Override
+        public String getUrl() {
+            return url;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return 200;
+        }
+
+        @Override
+        public String getCharset() {
+            return "UTF-8";
+        }
+
+        @Override
+        public String header(String name) {
+            return null;
+        }
+
+        @Override
+        public InputStream bodyStream() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public byte[] bodyAsBytes() {
+            return body;
+        }
+
+        @Override
+        public boolean isTruncated() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+}
@@ -0,0 +1,106 @@
+package me.lyphium.pagepriceparser.parser;
+
+import me.lyphium.pagepriceparser.database.DatabaseConnection;
+import me.lyphium.pagepriceparser.utils.Pair;
+import me.lyphium.pagepriceparser.utils.SimulatedClock;
+import me.lyphium.pagepriceparser.utils.Utils;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+
+public class Simulation {
+
+    // Number of progress reports over the simulated time
+    public static final int REPORTS = 12;
+
+    private static final long DAY = 24 * 60 * 60 * 1000L;
+
+    private final PageParser parser;
+    private final DatabaseConnection database;
+    private final SimulatedClock clock;
+    private final SimulatedSource source;
+
+    // Number of prices stored before the simulation started
+    private long stored;
+
+    public Simulation(PageParser parser, DatabaseConnection database, SimulatedClock clock, double failureRate) {
+        if (!(parser.getSource() instanceof SimulatedSource)) {
+            throw new IllegalStateException("Parser doesn't load simulated pages");
+        }
+
+        this.parser = parser;
+        this.database = database;
+        this.clock = clock;
+        this.source = (SimulatedSource) parser.getSource();
+        source.setFailureRate(failureRate);
+    }
+
+    public void run(long span) {
+        final long start = clock.millis();
+        final long end = start + span;
+        final long realStart = System.currentTimeMillis();
+
+        final long requests = source.getRequests().get();
+        final long failures = source.getFailures().get();
+        stored = countPrices();
+
+        final long reportStep = Math.max(1, span / REPORTS);
+        long nextReport = start + reportStep;
+
+        // The parser checks the pages like in real time, the clock jumps straight to its next run
+        long next = start;
+        while (next < end) {
+            while (next >= nextReport) {
+                clock.set(nextReport);
+                report(realStart);
+                nextReport += reportStep;
+            }
+
+            clock.set(next);
+            next = Math.max(next + 1, parser.runDue());
+        }
+
+        clock.set(end);
+        report(realStart);
+
+        System.out.println(String.format("Finished: Simulated %d days in %.1fsec (%d requests, %d failed, %d prices)",
+                span / DAY, (System.currentTimeMillis() - realStart) / 1000.0, source.getRequests().get() - requests,
+                source.getFailures().get() - failures, countPrices() - stored));
+    }
+
+    private long countPrices() {
+        // Same number the info command shows
+        final List<Pair<String, Object>> info = database.getDatabaseInformation();
+        if (info != null) {
+            for (Pair<String, Object> pair : info) {
+                if (pair.getFirst().equals("Number of Prices") && pair.getSecond() instanceof Number) {
+                    return ((Number) pair.getSecond()).longValue();
+                }
+            }
+        }
+        return 0;
+    }
+
+    private void report(long realStart) {
+        final long now = clock.millis();
+        final long elapsed = Math.max(1, System.currentTimeMillis() - realStart);
+        final long written = countPrices() - stored;
+
+        // Typical queries of the commands: latest week and full history of one fuel over all pages
+        long time = System.nanoTime();
+        database.getPriceData(Fuel.DIESEL, new Timestamp(now - 7 * DAY), new Timestamp(now));
+        final long week = System.nanoTime() - time;
+
+        time = System.nanoTime();
+        database.getPriceData(Fuel.DIESEL, new Timestamp(0), new Timestamp(now));
+        final long history = System.nanoTime() - time;
+
+        final long size = database.getStorageSize();
+
+        System.out.println(String.format("%s: %d prices (%.0f/sec), %s stored, query week %.1fms, history %.1fms",
+                Utils.toString(new Date(now)), written, written * 1000.0 / elapsed,
+                size < 0 ? "n/a" : String.format("%.1fMB", size / 1024.0 / 1024.0), week / 1e6, history / 1e6));
+    }
+
+}
@@ -0,0 +1,108 @@
+package me.lyphium.pagepriceparser.parser;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+public class UpdateCycle {
+
+    @Getter
+    private final String name;
+
+    // Selects the pages of this cycle, null for all pages
+    @Getter
+    private final Predicate<PriceData> filter;
+
+    // Time until the next cycle of the same kind should start
+    @Getter
+    private final long tick;
+
+    // Completed when the cycle is done, no matter if it was successful
+    @Getter
+    private final CompletableFuture<UpdateCycle> future = new CompletableFuture<>();
+
+    @Getter
+    private volatile long startTime = 0;
+    @Getter
+    private volatile int total = 0;
+    private final AtomicInteger completed = new AtomicInteger();
+
+    @Getter
+    private volatile long late = 0;
+    private volatile Map<PageResult, Integer> counts = Collections.emptyMap();
+
+    public UpdateCycle(String name, Predicate<PriceData> filter, long tick) {
+        this.name = name;
+        this.filter = filter;
+        this.tick = tick;
+    }
+
+    public boolean isFull() {
+        return filter == null;
+    }
+
+    public boolean isStarted() {
+        return startTime > 0;
+    }
+
+    public boolean isDone() {
+        return future.isDone();
+    }
+
+    public int getCompleted() {
+        return completed.get();
+    }
+
+    public int getCount(PageResult result) {
+        return counts.getOrDefault(result, 0);
+    }
+
+    void start(long time) {
+        this.startTime = time;
+    }
+
+    void setTotal(int total) {
+        this.total = total;
+    }
+
+    void pageCompleted() {
+        completed.incrementAndGet();
+    }
+
+    synchronized void pageCompleted(PageResult result) {
+        // Pages checked one by one, e.g. by the page queue, the cycle is done with its last page
+        final Map<PageResult, Integer> counts = new EnumMap<>(PageResult.class);
+        counts.putAll(this.counts);
+        counts.merge(result, 1, Integer::sum);
+        this.counts = counts;
+
+        if (completed.incrementAndGet() >= total) {
+            future.complete(this);
+        }
+    }
+
+    void finish(Map<PageResult, Integer> counts, long late) {
+        this.counts = new EnumMap<>(counts);
+        this.late = late;
+    }
+
+    @Override
+    public String toString() {
+        if (!isStarted()) {
+            return name + ": waiting";
+        }
+        if (isDone()) {
+            return String.format("%s: done (%d updated, %d unchanged, %d failed, %d cancelled)", name,
+                    getCount(PageResult.UPDATED), getCount(PageResult.UNCHANGED),
+                    getCount(PageResult.FAILED), getCount(PageResult.CANCELLED));
+        }
+        return String.format("%s: %d/%d pages (%dsec)", name, getCompleted(), total,
+                (System.currentTimeMillis() - startTime) / 1000);
+    }
+
+}
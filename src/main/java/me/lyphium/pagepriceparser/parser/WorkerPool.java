@@ -0,0 +1,48 @@
+package me.lyphium.pagepriceparser.parser;
+
+import lombok.Getter;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Getter
+public class WorkerPool extends ThreadPoolExecutor {
+
+    private final String name;
+    private final int queueLimit;
+
+    public WorkerPool(String name, int threads, int queueLimit) {
+        super(
+                Math.max(1, threads), Math.max(1, threads),
+                60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, queueLimit))
+        );
+        this.name = name;
+        this.queueLimit = Math.max(1, queueLimit);
+
+        // Idle workers are released between update cycles
+        allowCoreThreadTimeOut(true);
+
+        final AtomicInteger count = new AtomicInteger();
+        setThreadFactory(r -> {
+            final Thread thread = new Thread(r, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "%s: %d/%d active, %d/%d queued, %d completed",
+                name, getActiveCount(), getMaximumPoolSize(), getQueueDepth(), queueLimit, getCompletedTaskCount()
+        );
+    }
+
+}
@@ -0,0 +1,124 @@
+package me.lyphium.pagepriceparser.parser.extractor;
+
+import lombok.Getter;
+import me.lyphium.pagepriceparser.parser.Fuel;
+import me.lyphium.pagepriceparser.parser.PriceBlockReader;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.QueryParser;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+public abstract class AbstractPriceExtractor implements PriceExtractor {
+
+    private final String[] domains;
+
+    @Getter
+    private final PriceBlockReader blockReader;
+
+    // Selectors are parsed once instead of on every page
+    private final Evaluator container, row, name, price;
+
+    // Selectors of the station entries on list pages and the link to their detail page, null without list pages
+    private Evaluator listEntry, listLink;
+
+    // Lowercase names of fuels only used by this source, all other names are known by the fuel itself
+    private final Map<String, Fuel> aliases = new HashMap<>();
+
+    protected AbstractPriceExtractor(String[] domains, String blockMarker,
+                                     String container, String row, String name, String price) {
+        this.domains = Arrays.copyOf(domains, domains.length);
+        this.blockReader = blockMarker != null ? new PriceBlockReader(Pattern.compile(blockMarker)) : null;
+
+        this.container = QueryParser.parse(container);
+        this.row = QueryParser.parse(row);
+        this.name = QueryParser.parse(name);
+        this.price = QueryParser.parse(price);
+    }
+
+    @Override
+    public final String[] getDomains() {
+        return Arrays.copyOf(domains, domains.length);
+    }
+
+    @Override
+    public Element selectContainer(Document doc) {
+        return doc.selectFirst(container);
+    }
+
+    @Override
+    public Map<Fuel, Float> extract(Element container) {
+        final Map<Fuel, Float> prices = new EnumMap<>(Fuel.class);
+
+        for (Element element : container.select(row)) {
+            try {
+                final Element nameElement = element.selectFirst(name);
+                if (nameElement == null) {
+                    continue;
+                }
+
+                // Names of this source first, then the names every fuel is known by
+                final String fuelName = nameElement.html().trim().toLowerCase();
+                Fuel fuel = aliases.get(fuelName);
+                if (fuel == null) {
+                    fuel = Fuel.getByName(fuelName);
+                }
+                if (fuel == null) {
+                    continue;
+                }
+
+                final Element priceField = element.selectFirst(price);
+                prices.put(fuel, parsePrice(priceField));
+            } catch (Exception e) {
+                System.err.println("Error while parsing: " + container.baseUri());
+            }
+        }
+
+        return prices;
+    }
+
+    @Override
+    public Map<String, Map<Fuel, Float>> extractList(Document doc) {
+        if (listEntry == null) {
+            return Collections.emptyMap();
+        }
+
+        final Map<String, Map<Fuel, Float>> entries = new HashMap<>();
+        for (Element entry : doc.select(listEntry)) {
+            final Element link = entry.selectFirst(listLink);
+            final String url = link != null ? link.absUrl("href") : "";
+            if (url.isEmpty()) {
+                continue;
+            }
+
+            // Entries use the same price rows as the detail page
+            final Map<Fuel, Float> prices = extract(entry);
+            if (!prices.isEmpty()) {
+                entries.put(url, prices);
+            }
+        }
+
+        return entries;
+    }
+
+    // Enables list pages, only for sources whose entries contain a link to the detail page and all of its price rows
+    protected void listPages(String entry, String link) {
+        this.listEntry = QueryParser.parse(entry);
+        this.listLink = QueryParser.parse(link);
+    }
+
+    // Adds another name of a fuel used by this source
+    protected void alias(String name, Fuel fuel) {
+        aliases.put(name.toLowerCase(), fuel);
+    }
+
+    // Reads the price from the element matched by the price selector
+    protected abstract float parsePrice(Element priceField);
+
+}
@@ -0,0 +1,27 @@
+package me.lyphium.pagepriceparser.parser.extractor;
+
+import me.lyphium.pagepriceparser.utils.Utils;
+import org.jsoup.nodes.Element;
+
+public class CleverTankenExtractor extends AbstractPriceExtractor {
+
+    public CleverTankenExtractor() {
+        super(
+                new String[]{"clever-tanken.de"},
+                "id=[\"']?prices-container[\"'\\s>]",
+                "#prices-container", ".price-row", ".price-type-name", ".price-field"
+        );
+
+        // No list pages: Search results only show the price of a single fuel per station, never the full price block
+    }
+
+    @Override
+    protected float parsePrice(Element priceField) {
+        final String priceString = priceField.selectFirst("span").html();
+
+        // Last digit is shown separately and always 9
+        final float price = Float.parseFloat(priceString) + 0.009F;
+        return Utils.round(price, 3);
+    }
+
+}
@@ -0,0 +1,108 @@
+package me.lyphium.pagepriceparser.parser.extractor;
+
+import me.lyphium.pagepriceparser.utils.Utils;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ExtractorRegistry {
+
+    public static final File EXTRACTOR_DIRECTORY = new File("extractors");
+
+    // Extractors by their domain
+    private final Map<String, PriceExtractor> extractors = new ConcurrentHashMap<>();
+
+    // Normalized url prefixes read by the extractor of another domain, e.g. a local stub server, grouped by their host
+    private final Map<String, Map<String, String>> aliases = new ConcurrentHashMap<>();
+
+    public void register(PriceExtractor extractor) {
+        for (String domain : extractor.getDomains()) {
+            extractors.put(domain.toLowerCase(), extractor);
+        }
+    }
+
+    public void registerDefaults() {
+        register(new CleverTankenExtractor());
+        register(new ShellExtractor());
+    }
+
+    public int loadServices(ClassLoader loader) {
+        int count = 0;
+
+        // Extractors are found by their 'META-INF/services' entry
+        for (PriceExtractor extractor : ServiceLoader.load(PriceExtractor.class, loader)) {
+            register(extractor);
+            count++;
+        }
+
+        return count;
+    }
+
+    public int loadDirectory(File directory) {
+        final File[] files = directory.listFiles(f -> f.isFile() && f.getName().endsWith(".jar"));
+        if (files == null || files.length == 0) {
+            return 0;
+        }
+
+        final List<URL> urls = new ArrayList<>();
+        for (File file : files) {
+            try {
+                urls.add(file.toURI().toURL());
+            } catch (MalformedURLException e) {
+                System.err.println("Invalid extractor file: " + file.getName());
+            }
+        }
+
+        // Classloader stays open, the extractors are used until the bot stops
+        final ClassLoader loader = new URLClassLoader(urls.toArray(new URL[0]), getClass().getClassLoader());
+
+        try {
+            return loadServices(loader);
+        } catch (ServiceConfigurationError e) {
+            System.err.println("Couldn't load extractors: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    public void alias(String prefix, String domain) {
+        final String normalized = Utils.normalizeUrl(prefix);
+        aliases.computeIfAbsent(getHost(normalized), host -> new ConcurrentHashMap<>()).put(normalized, domain.toLowerCase());
+    }
+
+    public PriceExtractor get(String url) {
+        if (!aliases.isEmpty()) {
+            // Only the prefixes of the same host are compared, not every alias
+            final String normalized = Utils.normalizeUrl(url);
+            final Map<String, String> prefixes = aliases.get(getHost(normalized));
+            if (prefixes != null) {
+                for (Map.Entry<String, String> entry : prefixes.entrySet()) {
+                    if (normalized.startsWith(entry.getKey())) {
+                        return extractors.get(entry.getValue());
+                    }
+                }
+            }
+        }
+
+        final String domain = Utils.getDomain(url);
+        return domain != null ? extractors.get(domain.toLowerCase()) : null;
+    }
+
+    private static String getHost(String normalized) {
+        // Host and port of a normalized url, e.g. localhost:8080/station/1 -> localhost:8080
+        final int slash = normalized.indexOf('/');
+        return slash >= 0 ? normalized.substring(0, slash) : normalized;
+    }
+
+    public Collection<PriceExtractor> getExtractors() {
+        return Collections.unmodifiableCollection(new LinkedHashSet<>(extractors.values()));
+    }
+
+    public Set<String> getDomains() {
+        return Collections.unmodifiableSet(new TreeSet<>(extractors.keySet()));
+    }
+
+}
@@ -0,0 +1,36 @@
+package me.lyphium.pagepriceparser.parser.extractor;
+
+import me.lyphium.pagepriceparser.parser.Fuel;
+import me.lyphium.pagepriceparser.parser.PriceBlockReader;
+import me.lyphium.pagepriceparser.parser.PriceData;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+
+import java.util.Collections;
+import java.util.Map;
+
+public interface PriceExtractor {
+
+    // Domains this extractor can parse, without a leading 'www.'
+    String[] getDomains();
+
+    // Reader for the price block in streaming mode or null if the complete page is needed
+    PriceBlockReader getBlockReader();
+
+    // Selects the element containing all prices of a page or null if it doesn't exist
+    Element selectContainer(Document doc);
+
+    // Reads all prices from the element returned by selectContainer
+    Map<Fuel, Float> extract(Element container);
+
+    // List page with the prices of the page and its neighbours or null if the source has no list pages
+    default String getListUrl(PriceData page) {
+        return null;
+    }
+
+    // Reads the prices of every station on a list page, mapped by the url of their detail page
+    default Map<String, Map<Fuel, Float>> extractList(Document doc) {
+        return Collections.emptyMap();
+    }
+
+}
@@ -0,0 +1,25 @@
+package me.lyphium.pagepriceparser.parser.extractor;
+
+import me.lyphium.pagepriceparser.utils.Utils;
+import org.jsoup.nodes.Element;
+
+public class ShellExtractor extends AbstractPriceExtractor {
+
+    public ShellExtractor() {
+        super(
+                new String[]{"find.shell.com"},
+                "class=[\"'](?:[^\"']*\\s)?fuels[\"'\\s]",
+                ".fuels", ".fuels__row", ".fuels__row-type", ".fuels__row-price"
+        );
+    }
+
+    @Override
+    protected float parsePrice(Element priceField) {
+        // Format: '€1.459/L'
+        final String priceString = priceField.html().split("/", 2)[0].substring(1);
+
+        final float price = Float.parseFloat(priceString);
+        return Utils.round(price, 3);
+    }
+
+}
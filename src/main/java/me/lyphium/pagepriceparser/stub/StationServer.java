@@ -0,0 +1,233 @@
+package me.lyphium.pagepriceparser.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Getter;
+import me.lyphium.pagepriceparser.utils.Utils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class StationServer {
+
+    // Paths of the station pages, stations with an even id look like clever-tanken.de, the others like Shell
+    public static final String CLEVER_PATH = "/clever-tanken/tankstelle_details/";
+    public static final String SHELL_PATH = "/shell/station/";
+
+    private static final String[] CLEVER_FUELS = {"Diesel", "Super E10", "Super E5", "SuperPlus", "Autogas"};
+    private static final String[] SHELL_FUELS = {"Shell Diesel FuelSave", "Shell Super FuelSave E10", "Shell Super FuelSave E5", "Shell V-Power Racing"};
+    private static final float[] BASE_PRICES = {1.65F, 1.72F, 1.78F, 1.89F, 0.99F};
+
+    @Getter
+    private final int port;
+    @Getter
+    private final int stations;
+
+    // Mean delay of a response, the maximum deviation from it and the share of requests answered with an error
+    private final long latency;
+    private final long jitter;
+    private final double failureRate;
+
+    // Prices of a station change once per drift period
+    private final long drift;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+
+    private HttpServer server;
+    private ScheduledExecutorService responder;
+
+    public StationServer(int port, int stations, long latency, long jitter, double failureRate, long drift) {
+        this.port = port;
+        this.stations = Math.max(1, stations);
+        this.latency = Math.max(0, latency);
+        this.jitter = Math.max(0, jitter);
+        this.failureRate = Math.max(0, Math.min(1, failureRate));
+        this.drift = Math.max(1000, drift);
+    }
+
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+
+        // Delayed responses are sent by the responder, so waiting requests don't block a thread
+        responder = Executors.newScheduledThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+            final Thread thread = new Thread(r, "StationServer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        server.createContext("/", this::handle);
+        server.setExecutor(responder);
+        server.start();
+    }
+
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+
+        server.stop(0);
+        responder.shutdownNow();
+        server = null;
+    }
+
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    public String getUrl(int id) {
+        return "http://127.0.0.1:" + port + (id % 2 == 0 ? CLEVER_PATH : SHELL_PATH) + id;
+    }
+
+    // Url prefixes of the generated pages mapped to the domain of the extractor reading them
+    public Map<String, String> getAliases() {
+        final Map<String, String> aliases = new LinkedHashMap<>();
+        aliases.put("http://127.0.0.1:" + port + CLEVER_PATH, "clever-tanken.de");
+        aliases.put("http://127.0.0.1:" + port + SHELL_PATH, "find.shell.com");
+        return aliases;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Station server on port %d: %d stations, %d requests, %d failed, %d not modified",
+                port, stations, requests.get(), failures.get(), notModified.get());
+    }
+
+    private void handle(HttpExchange exchange) {
+        requests.incrementAndGet();
+
+        final long delay = latency + (jitter > 0 ? ThreadLocalRandom.current().nextLong(-jitter, jitter + 1) : 0);
+        responder.schedule(() -> respond(exchange), Math.max(0, delay), TimeUnit.MILLISECONDS);
+    }
+
+    private void respond(HttpExchange exchange) {
+        try {
+            final String path = exchange.getRequestURI().getPath();
+            final boolean clever = path.startsWith(CLEVER_PATH);
+            final int id = parseId(path.substring(clever ? CLEVER_PATH.length() : Math.min(path.length(), SHELL_PATH.length())));
+
+            // Unknown station
+            if ((!clever && !path.startsWith(SHELL_PATH)) || id < 0 || id >= stations) {
+                send(exchange, 404, null, "<html><body>Not found</body></html>");
+                return;
+            }
+
+            if (ThreadLocalRandom.current().nextDouble() < failureRate) {
+                failures.incrementAndGet();
+                send(exchange, 503, null, "<html><body>Service unavailable</body></html>");
+                return;
+            }
+
+            // Page only changes with its prices
+            final long epoch = System.currentTimeMillis() / drift;
+            final String etag = "\"" + id + "-" + epoch + "\"";
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.getResponseHeaders().set("ETag", etag);
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+
+            send(exchange, 200, etag, clever ? createCleverPage(id, epoch) : createShellPage(id, epoch));
+        } catch (Exception e) {
+            exchange.close();
+        }
+    }
+
+    private void send(HttpExchange exchange, int status, String etag, String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+        if (etag != null) {
+            exchange.getResponseHeaders().set("ETag", etag);
+        }
+        exchange.sendResponseHeaders(status, bytes.length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private String createCleverPage(int id, long epoch) {
+        final StringBuilder builder = new StringBuilder(2048);
+        builder.append("<html><head><title>Tankstelle ").append(id).append("</title></head><body>");
+        builder.append("<div class=\"station\"><h1>Tankstelle ").append(id).append("</h1></div>");
+        builder.append("<div id=\"prices-container\">");
+
+        for (int i = 0; i < CLEVER_FUELS.length; i++) {
+            // Last digit is shown separately and always 9
+            final String price = String.format("%.2f", price(id, i, epoch) - 0.009F).replace(',', '.');
+            builder.append("<div class=\"price-row\"><div class=\"price-type-name\">").append(CLEVER_FUELS[i])
+                    .append("</div><div class=\"price-field\"><span>").append(price).append("</span><sup>9</sup></div></div>");
+        }
+
+        builder.append("</div><div class=\"footer\">Stub station server</div></body></html>");
+        return builder.toString();
+    }
+
+    private String createShellPage(int id, long epoch) {
+        final StringBuilder builder = new StringBuilder(2048);
+        builder.append("<html><head><title>Shell ").append(id).append("</title></head><body>");
+        builder.append("<div class=\"station\"><h1>Shell ").append(id).append("</h1></div>");
+        builder.append("<div class=\"fuels\">");
+
+        for (int i = 0; i < SHELL_FUELS.length; i++) {
+            final String price = String.format("%.3f", price(id, i, epoch)).replace(',', '.');
+            builder.append("<div class=\"fuels__row\"><div class=\"fuels__row-type\">").append(SHELL_FUELS[i])
+                    .append("</div><div class=\"fuels__row-price\">€").append(price).append("/L</div></div>");
+        }
+
+        builder.append("</div><div class=\"footer\">Stub station server</div></body></html>");
+        return builder.toString();
+    }
+
+    private float price(int id, int fuel, long epoch) {
+        // Every station has its own level, which moves by a few cents with every drift period
+        final float level = new Random(id * 31L).nextInt(20) / 100F;
+        final float change = (new Random(id * 31L + epoch * 7 + fuel).nextInt(11) - 5) / 100F;
+        return Utils.round(BASE_PRICES[fuel] + level + change, 2) + 0.009F;
+    }
+
+    private int parseId(String s) {
+        return s.matches("\\d{1,9}") ? Integer.parseInt(s) : -1;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: StationServer <port> <stations> [latency] [jitter] [failure rate] [drift]");
+            return;
+        }
+
+        final int port = Integer.parseInt(args[0]);
+        final int stations = Integer.parseInt(args[1]);
+        final long latency = args.length > 2 ? Utils.calculatePeriod(args[2]) : 0;
+        final long jitter = args.length > 3 ? Utils.calculatePeriod(args[3]) : 0;
+        final double failureRate = args.length > 4 ? Double.parseDouble(args[4]) : 0;
+        final long drift = args.length > 5 ? Utils.calculatePeriod(args[5]) : 10 * 60 * 1000;
+
+        final StationServer server = new StationServer(port, stations, latency, jitter, failureRate, drift);
+        server.start();
+
+        System.out.println("Started station server on port " + port + " with " + stations + " stations");
+        System.out.println("Start the bot with:");
+        for (Map.Entry<String, String> entry : server.getAliases().entrySet()) {
+            System.out.println("  -alias " + entry.getKey() + "=" + entry.getValue());
+        }
+    }
+
+}
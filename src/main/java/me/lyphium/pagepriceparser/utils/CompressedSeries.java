@@ -0,0 +1,317 @@
+package me.lyphium.pagepriceparser.utils;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+public class CompressedSeries implements PriceSeries, Serializable {
+
+    private static final long serialVersionUID = -2837465912837465913L;
+
+    // Number of prices decoded at once for random access
+    public static final int BLOCK_SIZE = 128;
+
+    /*
+     *  Every block starts with a raw key and value, the other prices are encoded as varints:
+     *  time  -> delta-of-delta (zigzag), regular checks need a single byte
+     *  value -> XOR with the previous value without its trailing zeros, unchanged prices need a single byte
+     */
+    private final int size;
+    private final long[] firstKeys;
+    private final float[] firstValues;
+    private final int[] offsets;
+    private final byte[] data;
+
+    // Last decoded block, sequential access only decodes every block once
+    private transient volatile Block cache;
+
+    // Series can't change, so the index is built once
+    private transient volatile PriceIndex index;
+
+    private CompressedSeries(int size, long[] firstKeys, float[] firstValues, int[] offsets, byte[] data) {
+        this.size = size;
+        this.firstKeys = firstKeys;
+        this.firstValues = firstValues;
+        this.offsets = offsets;
+        this.data = data;
+    }
+
+    public static CompressedSeries of(PriceSeries series) {
+        if (series instanceof CompressedSeries) {
+            return (CompressedSeries) series;
+        }
+
+        final int size = series.size();
+        final int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+
+        final long[] firstKeys = new long[blocks];
+        final float[] firstValues = new float[blocks];
+        final int[] offsets = new int[blocks];
+        final Writer writer = new Writer(size * 2);
+
+        long lastKey = 0, lastDelta = 0;
+        int lastBits = 0;
+        for (int i = 0; i < size; i++) {
+            final long key = series.getKey(i);
+            final float value = series.get(i);
+            final int bits = Float.floatToRawIntBits(value);
+
+            if (i % BLOCK_SIZE == 0) {
+                final int block = i / BLOCK_SIZE;
+                firstKeys[block] = key;
+                firstValues[block] = value;
+                offsets[block] = writer.size;
+                lastDelta = 0;
+            } else {
+                final long delta = key - lastKey;
+                writer.writeVarLong(zigzag(delta - lastDelta));
+                lastDelta = delta;
+
+                final int xor = bits ^ lastBits;
+                if (xor == 0) {
+                    writer.writeVarLong(0);
+                } else {
+                    final int trailing = Integer.numberOfTrailingZeros(xor);
+                    writer.writeVarLong((Integer.toUnsignedLong(xor) >>> trailing) << 5 | trailing);
+                }
+            }
+
+            lastKey = key;
+            lastBits = bits;
+        }
+
+        return new CompressedSeries(size, firstKeys, firstValues, offsets, Arrays.copyOf(writer.data, writer.size));
+    }
+
+    public PriceMap toPriceMap() {
+        return new PriceMap(keySet(), values());
+    }
+
+    // Bytes used by the encoded prices, without the object headers
+    public long getMemorySize() {
+        return data.length + firstKeys.length * 8L + firstValues.length * 4L + offsets.length * 4L;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long getKey(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        return block(index / BLOCK_SIZE).keys[index % BLOCK_SIZE];
+    }
+
+    @Override
+    public float get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        return block(index / BLOCK_SIZE).values[index % BLOCK_SIZE];
+    }
+
+    @Override
+    public int indexOf(long key) {
+        final int index = nearestIndexOf(key);
+
+        return index < size && getKey(index) == key ? index : -1;
+    }
+
+    @Override
+    public int nearestIndexOf(long key) {
+        // Last block starting at or before the key
+        final int block = floorBlock(key);
+        if (block < 0) {
+            return 0;
+        }
+
+        final Block decoded = block(block);
+        final int index = Arrays.binarySearch(decoded.keys, key);
+
+        // Not in the block -> insert after its last key, the next block starts after the key
+        return block * BLOCK_SIZE + (index >= 0 ? index : -index - 1);
+    }
+
+    @Override
+    public PriceIndex getAggregateIndex() {
+        if (index == null) {
+            index = new PriceIndex(this);
+        }
+        return index;
+    }
+
+    @Override
+    public long[] keySet() {
+        final long[] keys = new long[size];
+        for (int b = 0; b < firstKeys.length; b++) {
+            final Block block = decode(b);
+            System.arraycopy(block.keys, 0, keys, b * BLOCK_SIZE, block.keys.length);
+        }
+        return keys;
+    }
+
+    @Override
+    public float[] values() {
+        final float[] values = new float[size];
+        for (int b = 0; b < firstKeys.length; b++) {
+            final Block block = decode(b);
+            System.arraycopy(block.values, 0, values, b * BLOCK_SIZE, block.values.length);
+        }
+        return values;
+    }
+
+    @Override
+    public void forEach(BiConsumer<Long, Float> action) {
+        Objects.requireNonNull(action);
+
+        forEachPrice(Long.MIN_VALUE, Long.MAX_VALUE, action::accept);
+    }
+
+    @Override
+    public void forEachPrice(PriceConsumer action) {
+        forEachPrice(Long.MIN_VALUE, Long.MAX_VALUE, action);
+    }
+
+    @Override
+    public void forEachPrice(long from, long to, PriceConsumer action) {
+        Objects.requireNonNull(action);
+
+        // Blocks are decoded one after another, without touching the cache of random access
+        for (int b = Math.max(0, floorBlock(from)); b < firstKeys.length && firstKeys[b] <= to; b++) {
+            final Block block = decode(b);
+            for (int i = 0; i < block.keys.length; i++) {
+                final long key = block.keys[i];
+                if (key > to) {
+                    return;
+                }
+                if (key >= from) {
+                    action.accept(key, block.values[i]);
+                }
+            }
+        }
+    }
+
+    private int floorBlock(long key) {
+        final int index = Arrays.binarySearch(firstKeys, key);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private Block block(int index) {
+        final Block cached = cache;
+        if (cached != null && cached.index == index) {
+            return cached;
+        }
+
+        final Block block = decode(index);
+        cache = block;
+        return block;
+    }
+
+    private Block decode(int index) {
+        final int count = Math.min(BLOCK_SIZE, size - index * BLOCK_SIZE);
+        final long[] keys = new long[count];
+        final float[] values = new float[count];
+
+        keys[0] = firstKeys[index];
+        values[0] = firstValues[index];
+
+        final Reader reader = new Reader(data, offsets[index]);
+        int bits = Float.floatToRawIntBits(values[0]);
+        long delta = 0;
+
+        for (int i = 1; i < count; i++) {
+            delta += unzigzag(reader.readVarLong());
+            keys[i] = keys[i - 1] + delta;
+
+            final long xor = reader.readVarLong();
+            if (xor != 0) {
+                bits ^= (int) (xor >>> 5) << (int) (xor & 31);
+            }
+            values[i] = Float.intBitsToFloat(bits);
+        }
+
+        return new Block(index, keys, values);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    @Override
+    public String toString() {
+        return "CompressedSeries{size=" + size + ", bytes=" + getMemorySize() + '}';
+    }
+
+    private static class Block {
+
+        private final int index;
+        private final long[] keys;
+        private final float[] values;
+
+        private Block(int index, long[] keys, float[] values) {
+            this.index = index;
+            this.keys = keys;
+            this.values = values;
+        }
+
+    }
+
+    private static class Writer {
+
+        private byte[] data;
+        private int size = 0;
+
+        private Writer(int capacity) {
+            this.data = new byte[Math.max(16, capacity)];
+        }
+
+        private void writeVarLong(long value) {
+            if (size + 10 > data.length) {
+                data = Arrays.copyOf(data, data.length + (data.length >> 1) + 10);
+            }
+
+            // 7 bits per byte, the highest bit marks another byte
+            while ((value & ~0x7FL) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+
+    }
+
+    private static class Reader {
+
+        private final byte[] data;
+        private int position;
+
+        private Reader(byte[] data, int position) {
+            this.data = data;
+            this.position = position;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+
+    }
+
+}
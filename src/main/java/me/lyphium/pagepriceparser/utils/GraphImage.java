@@ -63,7 +63,7 @@ public class GraphImage {
     private final Random random;
 
     private final String name;
-    private final List<Triple<String, PriceMap, Color>> data;
+    private final List<Triple<String, PriceSeries, Color>> data;
 
     private File target;
     private float minValue = Float.MAX_VALUE, maxValue = Float.MIN_VALUE;
@@ -72,13 +72,13 @@ public class GraphImage {
     private SimpleDateFormat optionalFormat;
     private String subTitle;
 
-    public GraphImage(String name, List<Triple<String, PriceMap, Color>> data, File target, SimpleDateFormat format, String subTitle) {
+    public GraphImage(String name, List<Triple<String, PriceSeries, Color>> data, File target, SimpleDateFormat format, String subTitle) {
         this(name, data, target);
         this.optionalFormat = format;
         this.subTitle = subTitle;
     }
 
-    public GraphImage(String name, List<Triple<String, PriceMap, Color>> data, File target) {
+    public GraphImage(String name, List<Triple<String, PriceSeries, Color>> data, File target) {
         this.name = name;
         this.data = data;
         this.target = target;
@@ -146,13 +146,13 @@ public class GraphImage {
         // Fill Graph
         final int infoOffset = (GRAPH_MAX_X - GRAPH_MIN_X) / data.size();
         for (int i = data.size() - 1; i >= 0; i--) {
-            Triple<String, PriceMap, Color> entry = data.get(i);
+            Triple<String, PriceSeries, Color> entry = data.get(i);
             // Get Color of line
             final Color color = entry.getThird();
 
             // Map Graphpoints
-            final int[] x = mapXValues(entry.getSecond().keySet(), minTime, maxTime);
-            final int[] y = mapYValues(entry.getSecond().values(), minValue, maxValue);
+            final int[] x = mapXValues(entry.getSecond(), minTime, maxTime);
+            final int[] y = mapYValues(entry.getSecond(), minValue, maxValue);
 
             // Map Graphpoints with steps
 //            final int[] tempX = mapXValues(entry.getValue().keySet(), minTime, maxTime);
@@ -254,25 +254,25 @@ public class GraphImage {
         return (int) ((value - min) * (GRAPH_MAX_X - GRAPH_MIN_X) / (max - min)) + GRAPH_MIN_X;
     }
 
-    private int[] mapYValues(float[] in, float min, float max) {
-        final int[] out = new int[in.length];
-        for (int i = 0; i < in.length; i++) {
-            out[i] = calcYPos(in[i], min, max);
+    private int[] mapYValues(PriceSeries in, float min, float max) {
+        final int[] out = new int[in.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = calcYPos(in.get(i), min, max);
         }
         return out;
     }
 
-    private int[] mapXValues(long[] in, long min, long max) {
-        final int[] out = new int[in.length];
-        for (int i = 0; i < in.length; i++) {
-            out[i] = calcXPos(in[i], min, max);
+    private int[] mapXValues(PriceSeries in, long min, long max) {
+        final int[] out = new int[in.size()];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = calcXPos(in.getKey(i), min, max);
         }
         return out;
     }
 
     private void calcBorder() {
-        for (Triple<String, PriceMap, Color> entry : data) {
-            final PriceMap map = entry.getSecond();
+        for (Triple<String, PriceSeries, Color> entry : data) {
+            final PriceSeries map = entry.getSecond();
 
             if (map.isEmpty()) {
                 continue;
@@ -290,14 +290,12 @@ public class GraphImage {
             }
 
             // Get minimum and maximum values in map
-            for (int i = 0; i < map.size(); i++) {
-                final float value = map.get(i);
-                if (value < minValue) {
-                    minValue = value;
-                }
-                if (value > maxValue) {
-                    maxValue = value;
-                }
+            final PriceAggregate aggregate = map.aggregate();
+            if (aggregate.getMin() < minValue) {
+                minValue = aggregate.getMin();
+            }
+            if (aggregate.getMax() > maxValue) {
+                maxValue = aggregate.getMax();
             }
         }
     }
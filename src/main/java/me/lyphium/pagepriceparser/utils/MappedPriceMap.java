@@ -0,0 +1,323 @@
+package me.lyphium.pagepriceparser.utils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+public class MappedPriceMap implements PriceSeries, Closeable {
+
+    /*
+     *  File layout, all numbers big endian:
+     *  magic (4) | capacity (4) | size (4) | reserved (4) | keys (capacity * 8) | values (capacity * 4)
+     */
+    private static final int MAGIC = 0x50524331;
+    private static final int HEADER_SIZE = 16;
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = (Integer.MAX_VALUE - HEADER_SIZE) / 12;
+
+    private final File file;
+
+    // Replaced as a whole when the file grows, readers always read the size before the layout
+    private volatile Layout layout;
+    private volatile int size;
+
+    // Created on first use, updated with every query
+    private volatile PriceIndex index;
+
+    public MappedPriceMap(File file) throws IOException {
+        this.file = file;
+
+        final int capacity, size;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            if (raf.length() == 0) {
+                capacity = DEFAULT_CAPACITY;
+                size = 0;
+            } else {
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                raf.getChannel().read(header, 0);
+                if (header.getInt(0) != MAGIC) {
+                    throw new IOException("Not a price file: " + file);
+                }
+
+                capacity = header.getInt(4);
+                size = header.getInt(8);
+                if (capacity < 0 || capacity > MAX_CAPACITY || size < 0 || size > capacity) {
+                    throw new IOException("Corrupted price file: " + file);
+                }
+            }
+        }
+
+        this.layout = map(file, capacity);
+        this.size = size;
+
+        if (size == 0) {
+            writeHeader(layout, 0);
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public synchronized void append(long key, float value) {
+        final int size = this.size;
+        Layout layout = this.layout;
+
+        if (size > 0) {
+            final long last = layout.keys.get(size - 1);
+            if (key < last) {
+                throw new IllegalArgumentException("Key " + key + " is before the last key " + last);
+            }
+
+            // Same time again -> newer value wins
+            if (key == last) {
+                layout.values.put(size - 1, value);
+                return;
+            }
+        }
+
+        if (size == layout.capacity) {
+            layout = grow(layout, size);
+        }
+
+        layout.keys.put(size, key);
+        layout.values.put(size, value);
+
+        // Size is published last, so readers never see an entry before it is written
+        layout.buffer.putInt(8, size + 1);
+        this.size = size + 1;
+    }
+
+    public synchronized int appendAll(PriceSeries series) {
+        // Prices older than the last key are already stored (or were missed), only newer ones are appended
+        final long last = size > 0 ? layout.keys.get(size - 1) : Long.MIN_VALUE;
+
+        int appended = 0;
+        for (int i = series.nearestIndexOf(last); i < series.size(); i++) {
+            final long key = series.getKey(i);
+            if (key > last) {
+                appended++;
+            }
+            append(key, series.get(i));
+        }
+        return appended;
+    }
+
+    public void force() {
+        layout.buffer.force();
+    }
+
+    @Override
+    public synchronized void close() {
+        // No channel is kept open, the mapping itself is released by the garbage collector
+        force();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long getKey(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        return layout.keys.get(index);
+    }
+
+    @Override
+    public float get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        return layout.values.get(index);
+    }
+
+    @Override
+    public int indexOf(long key) {
+        final int index = nearestIndexOf(key);
+
+        return index < size && layout.keys.get(index) == key ? index : -1;
+    }
+
+    @Override
+    public int nearestIndexOf(long key) {
+        final int size = this.size;
+        final LongBuffer keys = layout.keys;
+
+        int low = 0;
+        int high = size - 1;
+
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final long midVal = keys.get(mid);
+
+            if (midVal < key) {
+                low = mid + 1;
+            } else if (midVal > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return low;
+    }
+
+    @Override
+    public PriceIndex getAggregateIndex() {
+        if (index == null) {
+            synchronized (this) {
+                if (index == null) {
+                    index = new PriceIndex(this);
+                }
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public long[] keySet() {
+        final int size = this.size;
+        final long[] out = new long[size];
+        layout.keys.duplicate().get(out, 0, size);
+        return out;
+    }
+
+    @Override
+    public float[] values() {
+        final int size = this.size;
+        final float[] out = new float[size];
+        layout.values.duplicate().get(out, 0, size);
+        return out;
+    }
+
+    @Override
+    public void forEach(BiConsumer<Long, Float> action) {
+        Objects.requireNonNull(action);
+
+        forEachPrice(action::accept);
+    }
+
+    @Override
+    public void forEachPrice(PriceConsumer action) {
+        Objects.requireNonNull(action);
+
+        final int size = this.size;
+        final Layout layout = this.layout;
+        final LongBuffer keys = layout.keys;
+        final FloatBuffer values = layout.values;
+        for (int i = 0; i < size; i++) {
+            action.accept(keys.get(i), values.get(i));
+        }
+    }
+
+    @Override
+    public void forEachPrice(long from, long to, PriceConsumer action) {
+        Objects.requireNonNull(action);
+
+        final int size = this.size;
+        final Layout layout = this.layout;
+        final LongBuffer keys = layout.keys;
+        final FloatBuffer values = layout.values;
+        for (int i = nearestIndexOf(from); i < size; i++) {
+            final long key = keys.get(i);
+            if (key > to) {
+                break;
+            }
+            action.accept(key, values.get(i));
+        }
+    }
+
+    private Layout grow(Layout layout, int size) {
+        if (layout.capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("Price file is full: " + file);
+        }
+
+        final int newCapacity = (int) Math.min(MAX_CAPACITY, layout.capacity + (layout.capacity >> 1) + 16L);
+
+        /*
+         *  Readers may still read the old mapping without a lock, so the larger layout is written to a new file
+         *  and replaces the old one in a single rename. The old file stays mapped until its readers are gone.
+         */
+        final File temp = new File(file.getPath() + ".tmp");
+        final Layout grown;
+        try {
+            Files.deleteIfExists(temp.toPath());
+            grown = map(temp, newCapacity);
+
+            for (int i = 0; i < size; i++) {
+                grown.keys.put(i, layout.keys.get(i));
+                grown.values.put(i, layout.values.get(i));
+            }
+            writeHeader(grown, size);
+            grown.buffer.force();
+
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new IllegalStateException("Couldn't grow price file: " + file, e);
+        }
+
+        this.layout = grown;
+        return grown;
+    }
+
+    private static Layout map(File file, int capacity) throws IOException {
+        // Mapping stays valid after the channel is closed, so no file handle is kept open per series
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            return new Layout(raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + capacity * 12L), capacity);
+        }
+    }
+
+    private static void writeHeader(Layout layout, int size) {
+        layout.buffer.putInt(0, MAGIC);
+        layout.buffer.putInt(4, layout.capacity);
+        layout.buffer.putInt(8, size);
+    }
+
+    private static LongBuffer keyColumn(ByteBuffer buffer, int capacity) {
+        // Casts keep the code working on Java 8, where 'position' and 'limit' only exist on Buffer
+        final ByteBuffer bytes = buffer.duplicate();
+        ((Buffer) bytes).position(HEADER_SIZE);
+        ((Buffer) bytes).limit(HEADER_SIZE + capacity * 8);
+        return bytes.slice().asLongBuffer();
+    }
+
+    private static FloatBuffer valueColumn(ByteBuffer buffer, int capacity) {
+        final ByteBuffer bytes = buffer.duplicate();
+        ((Buffer) bytes).position(HEADER_SIZE + capacity * 8);
+        ((Buffer) bytes).limit(HEADER_SIZE + capacity * 12);
+        return bytes.slice().asFloatBuffer();
+    }
+
+    private static class Layout {
+
+        private final MappedByteBuffer buffer;
+        private final LongBuffer keys;
+        private final FloatBuffer values;
+        private final int capacity;
+
+        private Layout(MappedByteBuffer buffer, int capacity) {
+            this.buffer = buffer;
+            this.keys = keyColumn(buffer, capacity);
+            this.values = valueColumn(buffer, capacity);
+            this.capacity = capacity;
+        }
+
+    }
+
+}
@@ -0,0 +1,46 @@
+package me.lyphium.pagepriceparser.utils;
+
+import lombok.Getter;
+
+@Getter
+public class PriceAggregate {
+
+    // Nothing in the range, minimum, maximum and the first and last price are NaN
+    public static final PriceAggregate EMPTY = new PriceAggregate(0, Float.NaN, Float.NaN, 0, 0, Float.NaN, 0, Float.NaN);
+
+    private final int count;
+    private final float min;
+    private final float max;
+    private final double sum;
+
+    private final long firstKey;
+    private final float first;
+    private final long lastKey;
+    private final float last;
+
+    public PriceAggregate(int count, float min, float max, double sum, long firstKey, float first, long lastKey, float last) {
+        this.count = count;
+        this.min = min;
+        this.max = max;
+        this.sum = sum;
+        this.firstKey = firstKey;
+        this.first = first;
+        this.lastKey = lastKey;
+        this.last = last;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public double getAverage() {
+        return count > 0 ? sum / count : Double.NaN;
+    }
+
+    @Override
+    public String toString() {
+        return "PriceAggregate{count=" + count + ", min=" + min + ", max=" + max + ", sum=" + sum +
+                ", first=" + firstKey + '=' + first + ", last=" + lastKey + '=' + last + '}';
+    }
+
+}
@@ -0,0 +1,9 @@
+package me.lyphium.pagepriceparser.utils;
+
+@FunctionalInterface
+public interface PriceConsumer {
+
+    // Same as BiConsumer<Long, Float>, without boxing every price
+    void accept(long key, float value);
+
+}
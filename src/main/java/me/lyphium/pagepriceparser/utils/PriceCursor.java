@@ -0,0 +1,66 @@
+package me.lyphium.pagepriceparser.utils;
+
+import java.util.NoSuchElementException;
+
+public class PriceCursor {
+
+    /*
+     *  Walks over a range of a series without copying or boxing:
+     *  final PriceCursor cursor = series.cursor(from, to);
+     *  while (cursor.next()) {
+     *      use(cursor.key(), cursor.value());
+     *  }
+     */
+    private final PriceSeries series;
+    private final int begin;
+    private final int end;
+
+    private int index;
+    private long key;
+    private float value;
+
+    PriceCursor(PriceSeries series, int begin, int end) {
+        this.series = series;
+        this.begin = begin;
+        this.end = Math.max(begin, end);
+        this.index = begin - 1;
+    }
+
+    public boolean hasNext() {
+        return index + 1 < end;
+    }
+
+    public boolean next() {
+        if (index + 1 >= end) {
+            index = end;
+            return false;
+        }
+
+        index++;
+        key = series.getKey(index);
+        value = series.get(index);
+        return true;
+    }
+
+    // Index of the current price in the series
+    public int index() {
+        return index;
+    }
+
+    public long key() {
+        check();
+        return key;
+    }
+
+    public float value() {
+        check();
+        return value;
+    }
+
+    private void check() {
+        if (index < begin || index >= end) {
+            throw new NoSuchElementException();
+        }
+    }
+
+}
@@ -0,0 +1,177 @@
+package me.lyphium.pagepriceparser.utils;
+
+import java.util.Arrays;
+
+public class PriceIndex {
+
+    // Prices per leaf of the tree, ranges are scanned inside the blocks at both ends
+    public static final int BLOCK_SIZE = 64;
+
+    /*
+     *  Segment tree over blocks of the series, node i has the children 2i and 2i + 1:
+     *  query  -> two partial blocks + O(log n) nodes
+     *  append -> last block and new blocks are updated, the tree doubles if it is full
+     *  Other changes of the series (inserting or removing older prices) rebuild the index
+     */
+    private final PriceSeries series;
+
+    private int capacity = 0;
+    private float[] min = new float[0];
+    private float[] max = new float[0];
+    private double[] sum = new double[0];
+
+    private int size = 0;
+    private long lastKey;
+    private float lastValue;
+
+    public PriceIndex(PriceSeries series) {
+        this.series = series;
+
+        update();
+    }
+
+    public PriceAggregate query() {
+        return query(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    public synchronized PriceAggregate query(long from, long to) {
+        update();
+
+        // Prices appended after the update aren't part of the tree yet
+        final int begin = series.ceilingIndexOf(from);
+        final int end = Math.min(series.floorIndexOf(to), size - 1);
+        if (begin > end) {
+            return PriceAggregate.EMPTY;
+        }
+
+        final int beginBlock = begin / BLOCK_SIZE, endBlock = end / BLOCK_SIZE;
+        final Accumulator acc = new Accumulator();
+
+        if (beginBlock == endBlock) {
+            scan(begin, end, acc);
+        } else {
+            scan(begin, (beginBlock + 1) * BLOCK_SIZE - 1, acc);
+            tree(beginBlock + 1, endBlock - 1, acc);
+            scan(endBlock * BLOCK_SIZE, end, acc);
+        }
+
+        return new PriceAggregate(end - begin + 1, acc.min, acc.max, acc.sum,
+                series.getKey(begin), series.get(begin), series.getKey(end), series.get(end));
+    }
+
+    public synchronized void update() {
+        final int size = series.size();
+
+        // Not only appended -> build everything again
+        if (size < this.size || this.size > 0 && series.getKey(this.size - 1) != lastKey) {
+            this.size = 0;
+        }
+
+        if (size == 0) {
+            this.size = 0;
+            return;
+        }
+
+        // Nothing changed since the last update
+        if (size == this.size && series.get(size - 1) == lastValue) {
+            return;
+        }
+
+        // Last block of the old size may have new prices or a replaced last price
+        final int firstBlock = this.size == 0 ? 0 : (this.size - 1) / BLOCK_SIZE;
+        final int blocks = (size + BLOCK_SIZE - 1) / BLOCK_SIZE;
+
+        if (blocks > capacity || this.size == 0) {
+            allocate(blocks);
+
+            for (int b = 0; b < blocks; b++) {
+                leaf(b, size);
+            }
+            for (int i = capacity - 1; i > 0; i--) {
+                merge(i);
+            }
+        } else {
+            for (int b = firstBlock; b < blocks; b++) {
+                leaf(b, size);
+                for (int i = (capacity + b) >> 1; i > 0; i >>= 1) {
+                    merge(i);
+                }
+            }
+        }
+
+        this.size = size;
+        this.lastKey = series.getKey(size - 1);
+        this.lastValue = series.get(size - 1);
+    }
+
+    private void allocate(int blocks) {
+        int capacity = Math.max(1, this.capacity);
+        while (capacity < blocks) {
+            capacity <<= 1;
+        }
+
+        this.capacity = capacity;
+        this.min = new float[capacity << 1];
+        this.max = new float[capacity << 1];
+        this.sum = new double[capacity << 1];
+
+        // Empty leaves don't change any result
+        Arrays.fill(min, Float.POSITIVE_INFINITY);
+        Arrays.fill(max, Float.NEGATIVE_INFINITY);
+    }
+
+    private void leaf(int block, int size) {
+        final Accumulator acc = new Accumulator();
+        scan(block * BLOCK_SIZE, Math.min(size, (block + 1) * BLOCK_SIZE) - 1, acc);
+
+        final int node = capacity + block;
+        min[node] = acc.min;
+        max[node] = acc.max;
+        sum[node] = acc.sum;
+    }
+
+    private void merge(int node) {
+        final int left = node << 1, right = left + 1;
+        min[node] = Math.min(min[left], min[right]);
+        max[node] = Math.max(max[left], max[right]);
+        sum[node] = sum[left] + sum[right];
+    }
+
+    private void scan(int begin, int end, Accumulator acc) {
+        for (int i = begin; i <= end; i++) {
+            final float value = series.get(i);
+            acc.min = Math.min(acc.min, value);
+            acc.max = Math.max(acc.max, value);
+            acc.sum += value;
+        }
+    }
+
+    private void tree(int beginBlock, int endBlock, Accumulator acc) {
+        // Bottom up, both borders move to their parents until they meet
+        for (int l = capacity + beginBlock, r = capacity + endBlock + 1; l < r; l >>= 1, r >>= 1) {
+            if ((l & 1) == 1) {
+                acc.add(min[l], max[l], sum[l]);
+                l++;
+            }
+            if ((r & 1) == 1) {
+                r--;
+                acc.add(min[r], max[r], sum[r]);
+            }
+        }
+    }
+
+    private static class Accumulator {
+
+        private float min = Float.POSITIVE_INFINITY;
+        private float max = Float.NEGATIVE_INFINITY;
+        private double sum = 0;
+
+        private void add(float min, float max, double sum) {
+            this.min = Math.min(this.min, min);
+            this.max = Math.max(this.max, max);
+            this.sum += sum;
+        }
+
+    }
+
+}
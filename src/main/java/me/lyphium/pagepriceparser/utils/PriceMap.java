@@ -8,7 +8,7 @@ import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.function.BiConsumer;
 
-public class PriceMap implements Serializable, Cloneable {
+public class PriceMap implements PriceSeries, Serializable, Cloneable {
 
     private static final long[] EMPTY_KEYDATA = new long[0];
     private static final float[] EMPTY_VALUEDATA = new float[0];
@@ -22,6 +22,9 @@ public class PriceMap implements Serializable, Cloneable {
     private int size = 0;
     private int modCount = 0;
 
+    // Aggregates of the prices, extended on append and dropped by any other change
+    private transient PriceIndex aggregates;
+
     public PriceMap() {
         this.keys = EMPTY_KEYDATA;
         this.values = EMPTY_VALUEDATA;
@@ -35,12 +38,20 @@ public class PriceMap implements Serializable, Cloneable {
     }
 
     public PriceMap(Map<? extends Long, ? extends Float> map) {
-        this.keys = new long[map.size()];
-        this.values = new float[map.size()];
+        this.keys = EMPTY_KEYDATA;
+        this.values = EMPTY_VALUEDATA;
 
+        // Entries of a hash map come in any order, so they are sorted once instead of inserted one by one
+        final long[] keys = new long[map.size()];
+        final float[] values = new float[map.size()];
+        int i = 0;
         for (Entry<? extends Long, ? extends Float> entry : map.entrySet()) {
-            put(entry.getKey(), entry.getValue());
+            keys[i] = entry.getKey();
+            values[i] = entry.getValue();
+            i++;
         }
+
+        bulkPut(keys, values, i, true);
     }
 
     public PriceMap(int initialCapacity) {
@@ -55,14 +66,17 @@ public class PriceMap implements Serializable, Cloneable {
         }
     }
 
+    @Override
     public int size() {
         return size;
     }
 
+    @Override
     public boolean isEmpty() {
         return size() == 0;
     }
 
+    @Override
     public boolean containsKey(long key) {
         return indexOf(key) >= 0;
     }
@@ -77,6 +91,7 @@ public class PriceMap implements Serializable, Cloneable {
         return false;
     }
 
+    @Override
     public float get(long key) {
         final int index = indexOf(key);
 
@@ -89,6 +104,7 @@ public class PriceMap implements Serializable, Cloneable {
         return index >= 0 ? values[index] : defaultValue;
     }
 
+    @Override
     public long getKey(int index) {
         if (index < 0 || index >= size) {
             throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
@@ -97,6 +113,7 @@ public class PriceMap implements Serializable, Cloneable {
         return keys[index];
     }
 
+    @Override
     public float get(int index) {
         if (index < 0 || index >= size) {
             throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
@@ -108,24 +125,31 @@ public class PriceMap implements Serializable, Cloneable {
     public float put(long key, float value) {
         modCount++;
 
-        final int old = indexOf(key);
-        if (old >= 0) {
-            values[old] = value;
+        // Keys in ascending order are appended without a search
+        if (size == 0 || key > keys[size - 1]) {
+            if (size == keys.length) {
+                grow();
+            }
+
+            keys[size] = key;
+            values[size] = value;
+            size++;
             return value;
         }
 
-        if (size == keys.length) {
-            grow();
-        }
+        // Older prices change the series in the middle -> aggregates are built again
+        aggregates = null;
 
-        if (size == 0) {
-            keys[0] = key;
-            values[0] = value;
-            size++;
+        final int index = nearestIndexOf(key);
+        if (keys[index] == key) {
+            values[index] = value;
             return value;
         }
 
-        final int index = nearestIndexOf(key);
+        if (size == keys.length) {
+            grow();
+        }
+
         final int numMoved = size - index;
 
         if (numMoved > 0) {
@@ -145,8 +169,182 @@ public class PriceMap implements Serializable, Cloneable {
             throw new IllegalArgumentException("Illegal Capacity: Sizes must be the same");
         }
 
-        for (int i = 0; i < keys.length; i++) {
-            put(keys[i], values[i]);
+        putAll(keys, values, keys.length);
+    }
+
+    public void putAll(long[] keys, float[] values, int length) {
+        if (length < 0 || length > keys.length || length > values.length) {
+            throw new IllegalArgumentException("Illegal Length: " + length);
+        }
+
+        bulkPut(keys, values, length, false);
+    }
+
+    public void putAll(PriceMap map) {
+        if (map == this || map.size == 0) {
+            return;
+        }
+
+        // Both maps are sorted already
+        modCount++;
+        merge(map.keys, map.values, map.size);
+    }
+
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > keys.length) {
+            modCount++;
+
+            final int newCapacity = Math.max(minCapacity, Math.min(MAX_SIZE, keys.length + (keys.length >> 1)));
+            keys = Arrays.copyOf(keys, newCapacity);
+            values = Arrays.copyOf(values, newCapacity);
+        }
+    }
+
+    private void bulkPut(long[] keys, float[] values, int length, boolean owned) {
+        if (length == 0) {
+            return;
+        }
+
+        modCount++;
+
+        boolean ascending = true, sorted = true;
+        for (int i = 1; i < length && sorted; i++) {
+            ascending &= keys[i] > keys[i - 1];
+            sorted = keys[i] >= keys[i - 1];
+        }
+
+        // Ascending keys are merged right away, everything else is sorted in a copy first
+        if (!ascending) {
+            if (!owned) {
+                keys = Arrays.copyOf(keys, length);
+                values = Arrays.copyOf(values, length);
+            }
+            if (!sorted) {
+                sort(keys, values, length);
+            }
+            length = dedupe(keys, values, length);
+        }
+
+        merge(keys, values, length);
+    }
+
+    private void merge(long[] keys, float[] values, int length) {
+        // All keys after the last key -> only append
+        if (size == 0 || keys[0] > this.keys[size - 1]) {
+            ensureCapacity(size + length);
+            System.arraycopy(keys, 0, this.keys, size, length);
+            System.arraycopy(values, 0, this.values, size, length);
+            size += length;
+            return;
+        }
+
+        aggregates = null;
+
+        final long[] newKeys = new long[size + length];
+        final float[] newValues = new float[size + length];
+
+        // Linear merge of both sorted arrays, new values replace old values of the same key
+        int i = 0, j = 0, n = 0;
+        while (i < size && j < length) {
+            if (this.keys[i] < keys[j]) {
+                newKeys[n] = this.keys[i];
+                newValues[n++] = this.values[i++];
+            } else {
+                if (this.keys[i] == keys[j]) {
+                    i++;
+                }
+                newKeys[n] = keys[j];
+                newValues[n++] = values[j++];
+            }
+        }
+
+        final int restOld = size - i, restNew = length - j;
+        System.arraycopy(this.keys, i, newKeys, n, restOld);
+        System.arraycopy(this.values, i, newValues, n, restOld);
+        n += restOld;
+        System.arraycopy(keys, j, newKeys, n, restNew);
+        System.arraycopy(values, j, newValues, n, restNew);
+        n += restNew;
+
+        this.keys = newKeys;
+        this.values = newValues;
+        this.size = n;
+    }
+
+    private static int dedupe(long[] keys, float[] values, int length) {
+        // Last value of the same key wins, just like putting them one after another
+        int n = 0;
+        for (int i = 0; i < length; i++) {
+            if (n > 0 && keys[n - 1] == keys[i]) {
+                values[n - 1] = values[i];
+            } else {
+                keys[n] = keys[i];
+                values[n++] = values[i];
+            }
+        }
+        return n;
+    }
+
+    private static void sort(long[] keys, float[] values, int length) {
+        // Stable merge sort, so equal keys keep the order they were put in
+        final long[] tmpKeys = new long[length];
+        final float[] tmpValues = new float[length];
+
+        long[] srcKeys = keys, dstKeys = tmpKeys;
+        float[] srcValues = values, dstValues = tmpValues;
+
+        // Short runs sorted by insertion first
+        final int run = 32;
+        for (int from = 0; from < length; from += run) {
+            final int to = Math.min(length, from + run);
+            for (int i = from + 1; i < to; i++) {
+                final long key = keys[i];
+                final float value = values[i];
+                int j = i - 1;
+                while (j >= from && keys[j] > key) {
+                    keys[j + 1] = keys[j];
+                    values[j + 1] = values[j];
+                    j--;
+                }
+                keys[j + 1] = key;
+                values[j + 1] = value;
+            }
+        }
+
+        for (int width = run; width < length; width <<= 1) {
+            for (int from = 0; from < length; from += width << 1) {
+                final int mid = Math.min(length, from + width);
+                final int to = Math.min(length, from + (width << 1));
+
+                int i = from, j = mid, n = from;
+                while (i < mid && j < to) {
+                    if (srcKeys[j] < srcKeys[i]) {
+                        dstKeys[n] = srcKeys[j];
+                        dstValues[n++] = srcValues[j++];
+                    } else {
+                        dstKeys[n] = srcKeys[i];
+                        dstValues[n++] = srcValues[i++];
+                    }
+                }
+                System.arraycopy(srcKeys, i, dstKeys, n, mid - i);
+                System.arraycopy(srcValues, i, dstValues, n, mid - i);
+                n += mid - i;
+                System.arraycopy(srcKeys, j, dstKeys, n, to - j);
+                System.arraycopy(srcValues, j, dstValues, n, to - j);
+            }
+
+            final long[] swapKeys = srcKeys;
+            srcKeys = dstKeys;
+            dstKeys = swapKeys;
+            final float[] swapValues = srcValues;
+            srcValues = dstValues;
+            dstValues = swapValues;
+        }
+
+        // Result ended up in the temporary arrays
+        if (srcKeys != keys) {
+            System.arraycopy(srcKeys, 0, keys, 0, length);
+            System.arraycopy(srcValues, 0, values, 0, length);
         }
     }
 
@@ -165,6 +363,7 @@ public class PriceMap implements Serializable, Cloneable {
         }
 
         modCount++;
+        aggregates = null;
 
         final float old = values[index];
         values[index] = value;
@@ -184,6 +383,7 @@ public class PriceMap implements Serializable, Cloneable {
         }
 
         modCount++;
+        aggregates = null;
 
         values[index] = newValue;
 
@@ -197,6 +397,7 @@ public class PriceMap implements Serializable, Cloneable {
         }
 
         modCount++;
+        aggregates = null;
 
         float value = values[index];
         fastRemove(index);
@@ -217,6 +418,7 @@ public class PriceMap implements Serializable, Cloneable {
         }
 
         modCount++;
+        aggregates = null;
         fastRemove(index);
         size--;
 
@@ -229,6 +431,7 @@ public class PriceMap implements Serializable, Cloneable {
         }
 
         modCount++;
+        aggregates = null;
 
         float value = values[index];
         fastRemove(index);
@@ -237,6 +440,24 @@ public class PriceMap implements Serializable, Cloneable {
         return value;
     }
 
+    public void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("From: " + fromIndex + ", To: " + toIndex + ", Size: " + size);
+        }
+        if (fromIndex == toIndex) {
+            return;
+        }
+
+        modCount++;
+        aggregates = null;
+
+        // Entries behind the range are moved only once
+        final int numMoved = size - toIndex;
+        System.arraycopy(keys, toIndex, keys, fromIndex, numMoved);
+        System.arraycopy(values, toIndex, values, fromIndex, numMoved);
+        size -= toIndex - fromIndex;
+    }
+
     private void fastRemove(int index) {
         final int numMoved = size - index - 1;
         if (numMoved > 0) {
@@ -247,10 +468,12 @@ public class PriceMap implements Serializable, Cloneable {
 
     public void clear() {
         modCount++;
+        aggregates = null;
 
         size = 0;
     }
 
+    @Override
     public int indexOf(long key) {
         int low = 0;
         int high = size - 1;
@@ -271,6 +494,7 @@ public class PriceMap implements Serializable, Cloneable {
         return -1;
     }
 
+    @Override
     public int nearestIndexOf(long key) {
         int low = 0;
         int high = size - 1;
@@ -305,14 +529,25 @@ public class PriceMap implements Serializable, Cloneable {
         }
     }
 
+    @Override
+    public PriceIndex getAggregateIndex() {
+        if (aggregates == null) {
+            aggregates = new PriceIndex(this);
+        }
+        return aggregates;
+    }
+
+    @Override
     public long[] keySet() {
         return Arrays.copyOf(keys, size);
     }
 
+    @Override
     public float[] values() {
         return Arrays.copyOf(values, size);
     }
 
+    @Override
     public void forEach(BiConsumer<Long, Float> action) {
         Objects.requireNonNull(action);
 
@@ -327,6 +562,32 @@ public class PriceMap implements Serializable, Cloneable {
         }
     }
 
+    @Override
+    public void forEachPrice(PriceConsumer action) {
+        Objects.requireNonNull(action);
+
+        final int mc = modCount;
+        for (int i = 0; i < size; i++) {
+            action.accept(keys[i], values[i]);
+        }
+        if (modCount != mc) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public void forEachPrice(long from, long to, PriceConsumer action) {
+        Objects.requireNonNull(action);
+
+        final int mc = modCount;
+        for (int i = nearestIndexOf(from); i < size && keys[i] <= to; i++) {
+            action.accept(keys[i], values[i]);
+        }
+        if (modCount != mc) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
     public PriceMap clone() {
         try {
             final PriceMap m = (PriceMap) super.clone();
@@ -334,12 +595,17 @@ public class PriceMap implements Serializable, Cloneable {
             m.values = Arrays.copyOf(values, size);
             m.size = size;
             m.modCount = 0;
+            m.aggregates = null;
             return m;
         } catch (CloneNotSupportedException e) {
             throw new InternalError(e);
         }
     }
 
+    public static Builder builder() {
+        return new Builder();
+    }
+
     private void grow() {
         final int oldCapacity = keys.length;
         final int newCapacity;
@@ -387,4 +653,44 @@ public class PriceMap implements Serializable, Cloneable {
         return result;
     }
 
-}
\ No newline at end of file
+    public static class Builder {
+
+        // Entries in the order they were added, sorted once when the map is built
+        private long[] keys = new long[DEFAULTCAPACITY];
+        private float[] values = new float[DEFAULTCAPACITY];
+        private int size = 0;
+
+        private Builder() {
+        }
+
+        public Builder add(long key, float value) {
+            if (size == keys.length) {
+                final int newCapacity = keys.length + (keys.length >> 1);
+                keys = Arrays.copyOf(keys, newCapacity);
+                values = Arrays.copyOf(values, newCapacity);
+            }
+
+            keys[size] = key;
+            values[size] = value;
+            size++;
+
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public PriceMap build() {
+            final PriceMap map = new PriceMap();
+            map.bulkPut(keys, values, size, true);
+
+            // Entries were copied into the map, so the builder can be used again
+            size = 0;
+
+            return map;
+        }
+
+    }
+
+}
@@ -0,0 +1,153 @@
+package me.lyphium.pagepriceparser.utils;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Supplier;
+
+public class PriceMapBenchmark {
+
+    // Inserting unordered keys one by one is quadratic, the baseline only uses this many points
+    public static final int BASELINE_POINTS = 50_000;
+
+    private static final long HOUR = 60 * 60 * 1000L;
+
+    private final int points;
+
+    // Hourly prices, in order and shuffled
+    private final long[] keys;
+    private final float[] values;
+    private final long[] shuffledKeys;
+    private final float[] shuffledValues;
+
+    public PriceMapBenchmark(int points) {
+        this.points = Math.max(2, points);
+
+        final Random random = new Random(42);
+        this.keys = new long[this.points];
+        this.values = new float[this.points];
+        for (int i = 0; i < this.points; i++) {
+            keys[i] = 1_500_000_000_000L + i * HOUR;
+            values[i] = 1.2F + random.nextInt(80) / 100F;
+        }
+
+        this.shuffledKeys = keys.clone();
+        this.shuffledValues = values.clone();
+        for (int i = this.points - 1; i > 0; i--) {
+            final int j = random.nextInt(i + 1);
+            final long key = shuffledKeys[i];
+            shuffledKeys[i] = shuffledKeys[j];
+            shuffledKeys[j] = key;
+            final float value = shuffledValues[i];
+            shuffledValues[i] = shuffledValues[j];
+            shuffledValues[j] = value;
+        }
+    }
+
+    public String run(int rounds) {
+        final StringBuilder builder = new StringBuilder();
+        final PriceMap expected = new PriceMap(keys, values);
+
+        // Two halves with alternating keys, so the merge has to interleave every entry
+        final PriceMap even = new PriceMap(), odd = new PriceMap();
+        for (int i = 0; i < points; i++) {
+            (i % 2 == 0 ? even : odd).put(keys[i], values[i]);
+        }
+
+        final int baseline = Math.min(points, BASELINE_POINTS);
+
+        builder.append(String.format("Points: %d, Rounds: %d\n", points, rounds));
+        builder.append(measure("put, ascending", rounds, points, expected, () -> {
+            final PriceMap map = new PriceMap();
+            for (int i = 0; i < points; i++) {
+                map.put(keys[i], values[i]);
+            }
+            return map;
+        }));
+        builder.append(measure("putAll, ascending", rounds, points, expected, () -> new PriceMap(keys, values)));
+        builder.append(measure("putAll, shuffled", rounds, points, expected, () -> new PriceMap(shuffledKeys, shuffledValues)));
+        builder.append(measure("builder, shuffled", rounds, points, expected, () -> {
+            final PriceMap.Builder b = PriceMap.builder();
+            for (int i = 0; i < points; i++) {
+                b.add(shuffledKeys[i], shuffledValues[i]);
+            }
+            return b.build();
+        }));
+        builder.append(measure("putAll, merge", rounds, points, expected, () -> {
+            final PriceMap map = even.clone();
+            map.putAll(odd);
+            return map;
+        }));
+        builder.append(measure("compress, decode", rounds, points, expected, () -> CompressedSeries.of(expected).toPriceMap()));
+        builder.append(measure("put, shuffled", rounds, baseline, null, () -> {
+            final PriceMap map = new PriceMap();
+            for (int i = 0; i < baseline; i++) {
+                map.put(shuffledKeys[i], shuffledValues[i]);
+            }
+            return map;
+        }));
+
+        // Every price changes in this data, so this is the worst case for the value encoding
+        final CompressedSeries compressed = CompressedSeries.of(expected);
+        builder.append(String.format("Memory: %d bytes/point as PriceMap (without slack), %.2f bytes/point compressed\n",
+                8 + 4, (double) compressed.getMemorySize() / points));
+
+        builder.append(aggregate(expected, rounds));
+
+        return builder.toString();
+    }
+
+    private String aggregate(PriceMap map, int rounds) {
+        // Random time ranges, every result is checked against a scan once
+        final Random random = new Random(7);
+        final int queries = 10_000;
+        final long[] from = new long[queries], to = new long[queries];
+        for (int i = 0; i < queries; i++) {
+            final long a = keys[random.nextInt(points)], b = keys[random.nextInt(points)];
+            from[i] = Math.min(a, b);
+            to[i] = Math.max(a, b);
+        }
+
+        long time = System.nanoTime();
+        final PriceIndex index = new PriceIndex(map);
+        final long build = System.nanoTime() - time;
+
+        boolean valid = true;
+        for (int i = 0; i < 100; i++) {
+            final PriceAggregate aggregate = index.query(from[i], to[i]);
+            final float[] min = {Float.POSITIVE_INFINITY}, max = {Float.NEGATIVE_INFINITY};
+            map.forEachPrice(from[i], to[i], (k, v) -> {
+                min[0] = Math.min(min[0], v);
+                max[0] = Math.max(max[0], v);
+            });
+            valid &= aggregate.getMin() == min[0] && aggregate.getMax() == max[0];
+        }
+
+        time = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            for (int i = 0; i < queries; i++) {
+                index.query(from[i], to[i]);
+            }
+        }
+        final long total = System.nanoTime() - time;
+
+        return String.format("Aggregate: index built in %.1fms, %.1fns/range query%s\n",
+                build / 1e6, (double) total / rounds / queries, valid ? "" : " (invalid result)");
+    }
+
+    private String measure(String name, int rounds, int count, PriceMap expected, Supplier<PriceMap> task) {
+        // Warm up and check the result once before measuring
+        final PriceMap result = task.get();
+        final boolean valid = expected == null || (Arrays.equals(result.keySet(), expected.keySet())
+                && Arrays.equals(result.values(), expected.values()));
+
+        final long time = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            task.get();
+        }
+        final long total = System.nanoTime() - time;
+
+        return String.format("%-18s %8d points %10.1fms/round %8.1fns/point%s\n", name + ":", count,
+                total / 1e6 / rounds, (double) total / rounds / count, valid ? "" : " (invalid result)");
+    }
+
+}
@@ -0,0 +1,115 @@
+package me.lyphium.pagepriceparser.utils;
+
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+public interface PriceSeries {
+
+    /*
+     *  Prices sorted by time, read only:
+     *  PriceMap          -> mutable arrays, fast random access
+     *  CompressedSeries  -> sealed history, a few bytes per price
+     *  MappedPriceMap    -> full history in a memory-mapped file, append only
+     *
+     *  Hot loops should use forEachPrice, cursors or index access, keySet and values copy the whole series
+     */
+
+    int size();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    long getKey(int index);
+
+    float get(int index);
+
+    // Index of the key, -1 if the key isn't in the series
+    int indexOf(long key);
+
+    // Index of the key or the index it would be inserted at
+    int nearestIndexOf(long key);
+
+    // Index of the last key before or at the key, -1 if there is none
+    default int floorIndexOf(long key) {
+        final int index = nearestIndexOf(key);
+
+        return index < size() && getKey(index) == key ? index : index - 1;
+    }
+
+    // Index of the first key at or after the key, size if there is none
+    default int ceilingIndexOf(long key) {
+        return nearestIndexOf(key);
+    }
+
+    default boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    default float get(long key) {
+        final int index = indexOf(key);
+
+        return index >= 0 ? get(index) : Float.NaN;
+    }
+
+    long[] keySet();
+
+    float[] values();
+
+    void forEach(BiConsumer<Long, Float> action);
+
+    default void forEach(long from, long to, BiConsumer<Long, Float> action) {
+        Objects.requireNonNull(action);
+
+        forEachPrice(from, to, action::accept);
+    }
+
+    default void forEachPrice(PriceConsumer action) {
+        Objects.requireNonNull(action);
+
+        for (int i = 0; i < size(); i++) {
+            action.accept(getKey(i), get(i));
+        }
+    }
+
+    default void forEachPrice(long from, long to, PriceConsumer action) {
+        Objects.requireNonNull(action);
+
+        // All prices with a key between 'from' and 'to' (both inclusive)
+        for (int i = nearestIndexOf(from); i < size(); i++) {
+            final long key = getKey(i);
+            if (key > to) {
+                break;
+            }
+            action.accept(key, get(i));
+        }
+    }
+
+    default PriceCursor cursor() {
+        return new PriceCursor(this, 0, size());
+    }
+
+    default PriceCursor cursor(long from, long to) {
+        return new PriceCursor(this, ceilingIndexOf(from), floorIndexOf(to) + 1);
+    }
+
+    // Prices between 'from' and 'to' (both inclusive) without copying them
+    default PriceSeries subSeries(long from, long to) {
+        return new SubSeries(this, ceilingIndexOf(from), floorIndexOf(to) + 1);
+    }
+
+    // Built on every call, the implementations keep their index and update it on append
+    default PriceIndex getAggregateIndex() {
+        return new PriceIndex(this);
+    }
+
+    default PriceAggregate aggregate() {
+        return aggregate(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    // Count, minimum, maximum, sum, first and last price between 'from' and 'to' (both inclusive)
+    default PriceAggregate aggregate(long from, long to) {
+        return getAggregateIndex().query(from, to);
+    }
+
+}
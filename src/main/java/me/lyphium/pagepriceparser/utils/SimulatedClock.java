@@ -0,0 +1,52 @@
+package me.lyphium.pagepriceparser.utils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class SimulatedClock extends Clock {
+
+    // Time only moves when it is set or advanced, so every run with the same steps sees the same times
+    private final AtomicLong time;
+    private final ZoneId zone;
+
+    public SimulatedClock(long time) {
+        this(new AtomicLong(time), ZoneId.systemDefault());
+    }
+
+    private SimulatedClock(AtomicLong time, ZoneId zone) {
+        this.time = time;
+        this.zone = zone;
+    }
+
+    public void set(long time) {
+        this.time.set(time);
+    }
+
+    public long advance(long duration) {
+        return time.addAndGet(duration);
+    }
+
+    @Override
+    public long millis() {
+        return time.get();
+    }
+
+    @Override
+    public Instant instant() {
+        return Instant.ofEpochMilli(millis());
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        // Both clocks share the same time
+        return new SimulatedClock(time, zone);
+    }
+
+}
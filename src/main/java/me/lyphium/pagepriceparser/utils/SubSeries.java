@@ -0,0 +1,104 @@
+package me.lyphium.pagepriceparser.utils;
+
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+class SubSeries implements PriceSeries {
+
+    // View of the prices between two indices, reads through to the series (changes of a PriceMap shift the view)
+    private final PriceSeries series;
+    private final int offset;
+    private final int size;
+
+    SubSeries(PriceSeries series, int begin, int end) {
+        this.series = series;
+        this.offset = begin;
+        this.size = Math.max(0, end - begin);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long getKey(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        return series.getKey(offset + index);
+    }
+
+    @Override
+    public float get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+
+        return series.get(offset + index);
+    }
+
+    @Override
+    public int indexOf(long key) {
+        final int index = nearestIndexOf(key);
+
+        return index < size && series.getKey(offset + index) == key ? index : -1;
+    }
+
+    @Override
+    public int nearestIndexOf(long key) {
+        return Math.max(0, Math.min(size, series.nearestIndexOf(key) - offset));
+    }
+
+    @Override
+    public long[] keySet() {
+        final long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = series.getKey(offset + i);
+        }
+        return keys;
+    }
+
+    @Override
+    public float[] values() {
+        final float[] values = new float[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = series.get(offset + i);
+        }
+        return values;
+    }
+
+    @Override
+    public void forEach(BiConsumer<Long, Float> action) {
+        Objects.requireNonNull(action);
+
+        forEachPrice(action::accept);
+    }
+
+    @Override
+    public void forEachPrice(PriceConsumer action) {
+        Objects.requireNonNull(action);
+
+        for (int i = offset; i < offset + size; i++) {
+            action.accept(series.getKey(i), series.get(i));
+        }
+    }
+
+    @Override
+    public PriceSeries subSeries(long from, long to) {
+        // Views of views point to the series directly
+        return new SubSeries(series, offset + ceilingIndexOf(from), offset + floorIndexOf(to) + 1);
+    }
+
+    @Override
+    public PriceAggregate aggregate(long from, long to) {
+        if (size == 0) {
+            return PriceAggregate.EMPTY;
+        }
+
+        // Index of the series limited to the view
+        return series.aggregate(Math.max(from, getKey(0)), Math.min(to, getKey(size - 1)));
+    }
+
+}
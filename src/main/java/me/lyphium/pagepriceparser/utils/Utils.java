@@ -1,5 +1,7 @@
 package me.lyphium.pagepriceparser.utils;
 
+import lombok.Getter;
+import lombok.Setter;
 import lombok.experimental.UtilityClass;
 import me.lyphium.pagepriceparser.parser.PageParser;
 
@@ -8,6 +10,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.sql.Timestamp;
 import java.text.SimpleDateFormat;
+import java.time.Clock;
 import java.util.List;
 import java.util.*;
 import java.util.Map.Entry;
@@ -27,6 +30,15 @@ public class Utils {
         put("[\\d]+(?=d)", 86400L);
     }};
 
+    // Source of the current time of prices, schedules and queries, replaced by a simulated clock in simulation mode
+    @Getter
+    @Setter
+    private volatile Clock clock = Clock.systemDefaultZone();
+
+    public long currentTime() {
+        return clock.millis();
+    }
+
     public long calculatePeriod(String s) {
         try {
             if (s.matches("(-)?(\\d)+")) {
@@ -85,6 +97,47 @@ public class Utils {
         }
     }
 
+    public String normalizeUrl(String url) {
+        /*
+         *  Same document, no matter how it is linked:
+         *  HTTPS://www.Example.com:443/a/./b/?y=2&x=1#top -> example.com/a/b?x=1&y=2
+         */
+        try {
+            final URI uri = new URI(url.trim()).normalize();
+            if (uri.getHost() == null) {
+                return url.trim();
+            }
+
+            String host = uri.getHost().toLowerCase();
+            if (host.startsWith("www.")) {
+                host = host.substring(4);
+            }
+
+            // Only non default ports are part of the address
+            final int port = uri.getPort();
+            if (port != -1 && port != 80 && port != 443) {
+                host += ":" + port;
+            }
+
+            String path = uri.getRawPath() != null ? uri.getRawPath().replaceAll("/{2,}", "/") : "";
+            while (path.endsWith("/")) {
+                path = path.substring(0, path.length() - 1);
+            }
+
+            // Order of the query parameters doesn't matter
+            String query = "";
+            if (uri.getRawQuery() != null && !uri.getRawQuery().isEmpty()) {
+                final String[] params = uri.getRawQuery().split("&");
+                Arrays.sort(params);
+                query = "?" + String.join("&", params);
+            }
+
+            return host + path + query;
+        } catch (URISyntaxException e) {
+            return url.trim();
+        }
+    }
+
     public float round(float value, int decimal) {
         final double pow = Math.pow(10, decimal);
         return (float) (Math.round(value * pow) / pow);
@@ -126,9 +179,10 @@ public class Utils {
 
     public Timestamp toTimestamp(String s) {
         if (s.equalsIgnoreCase("now")) {
-            return new Timestamp(System.currentTimeMillis());
+            return new Timestamp(currentTime());
         } else if (s.equalsIgnoreCase("today")) {
             final Calendar cal = Calendar.getInstance();
+            cal.setTimeInMillis(currentTime());
 
             cal.set(Calendar.HOUR_OF_DAY, 0);
             cal.set(Calendar.MINUTE, 0);